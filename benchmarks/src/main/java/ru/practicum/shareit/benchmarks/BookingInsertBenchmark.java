@@ -0,0 +1,102 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Пропускная способность вставки бронирований: single-row повторяет прежнее поведение (идентификатор
+// на каждую строку, без пакетов JDBC), pooled-lo - блоки идентификаторов и пакетные вставки
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BookingInsertBenchmark.BATCH_SIZE)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingInsertBenchmark {
+    static final int BATCH_SIZE = 100;
+
+    @Param({"single-row", "pooled-lo"})
+    private String idGeneration;
+
+    private Server h2Server;
+    private ShareItDataset dataset;
+    private BookingRepository bookingRepository;
+    private TransactionTemplate transactionTemplate;
+    private Item item;
+    private User booker;
+    private LocalDateTime start;
+
+    @Setup
+    public void setUp() throws SQLException {
+        // Во встроенной H2 обращение к БД почти бесплатно, а выигрыш pooled-lo именно в числе обращений
+        h2Server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String url = "--spring.datasource.url=jdbc:h2:tcp://localhost:" + h2Server.getPort() + "/mem:shareit";
+
+        dataset = "single-row".equals(idGeneration)
+                ? new ShareItDataset(10, 1, 0, url,
+                "--spring.sql.init.schema-locations=classpath:schema.sql,classpath:single-row-ids.sql",
+                // Размер блока в генераторе зафиксирован, поэтому Hibernate берет шаг 1 из последовательностей
+                "--spring.jpa.properties.hibernate.id.sequence.increment_size_mismatch_strategy=fix",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=1")
+                : new ShareItDataset(10, 1, 0, url);
+        bookingRepository = dataset.getBean(BookingRepository.class);
+        transactionTemplate = new TransactionTemplate(dataset.getBean(PlatformTransactionManager.class));
+        item = dataset.getItems().get(0);
+        booker = dataset.getUsers().get(1);
+        start = LocalDateTime.now();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteBookings() {
+        bookingRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.close();
+        h2Server.stop();
+    }
+
+    @Benchmark
+    public List<Booking> insertBookings() {
+        List<Booking> bookings = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            bookings.add(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i + 1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+
+        return transactionTemplate.execute(status -> bookingRepository.saveAll(bookings));
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingDetailsInfoDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingServiceBenchmark {
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private String state;
+
+    private ShareItDataset dataset;
+    private BookingService bookingService;
+    private long userId;
+
+    @Setup
+    public void setUp() {
+        dataset = new ShareItDataset(100, 10, 20);
+        bookingService = dataset.getBean(BookingService.class);
+        userId = dataset.getUsers().get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.close();
+    }
+
+    @Benchmark
+    public List<BookingDetailsInfoDto> getBookingsByBookerId() {
+        return BookingMapper.toBookingDetailsDto(bookingService.getBookingsByBookerId(userId, state, PAGE));
+    }
+
+    @Benchmark
+    public List<BookingDetailsInfoDto> getBookingsByItemOwnerId() {
+        return BookingMapper.toBookingDetailsDto(bookingService.getBookingsByItemOwnerId(userId, state, PAGE));
+    }
+}
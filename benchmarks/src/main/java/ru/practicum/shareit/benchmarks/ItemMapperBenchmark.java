@@ -0,0 +1,92 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.item.dto.ItemDetailsInfoDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemDetailsView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemMapperBenchmark {
+    @Param({"10", "100"})
+    private int itemCount;
+
+    @Param({"0", "5"})
+    private int commentsPerItem;
+
+    private List<ItemDetailsView> rows;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        // Строки создаются той же фабрикой проекций, что и в репозитории для нативного запроса
+        ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        LocalDateTime now = LocalDateTime.now();
+
+        rows = new ArrayList<>();
+
+        for (long itemId = 1; itemId <= itemCount; itemId++) {
+            for (long commentId = 1; commentId <= Math.max(commentsPerItem, 1); commentId++) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("id", itemId);
+                row.put("name", "Дрель " + itemId);
+                row.put("description", "Аккумуляторная дрель");
+                row.put("available", true);
+                row.put("ownerId", 1L);
+                row.put("lastBookingId", itemId * 2);
+                row.put("lastBookingBookerId", 2L);
+                row.put("lastBookingStart", now.minusDays(2));
+                row.put("lastBookingEnd", now.minusDays(1));
+                row.put("nextBookingId", itemId * 2 + 1);
+                row.put("nextBookingBookerId", 3L);
+                row.put("nextBookingStart", now.plusDays(1));
+                row.put("nextBookingEnd", now.plusDays(2));
+
+                if (commentsPerItem > 0) {
+                    row.put("commentId", itemId * 100 + commentId);
+                    row.put("commentText", "Отличная дрель");
+                    row.put("commentAuthorName", "Арендатор");
+                    row.put("commentCreated", now);
+                }
+
+                rows.add(projectionFactory.createProjection(ItemDetailsView.class, row));
+            }
+        }
+
+        items = ItemMapper.toItems(rows);
+    }
+
+    @Benchmark
+    public List<Item> groupOwnerItemRows() {
+        return ItemMapper.toItems(rows);
+    }
+
+    @Benchmark
+    public List<ItemDetailsInfoDto> toItemDetailsInfoDto() {
+        return ItemMapper.toItemDetailsInfoDto(items);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemDetailsInfoDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    private ShareItDataset dataset;
+    private ItemService itemService;
+    private Item item;
+    private Long ownerId;
+    private Long otherUserId;
+
+    @Setup
+    public void setUp() {
+        dataset = new ShareItDataset(100, 10, 20);
+        itemService = dataset.getBean(ItemService.class);
+        item = dataset.getItems().get(0);
+        ownerId = item.getOwner().getId();
+        otherUserId = dataset.getUsers().get(1).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataset.close();
+    }
+
+    // Владелец получает последнее и следующее бронирования, которые не кешируются вместе с вещью
+    @Benchmark
+    public ItemDetailsInfoDto getItemByIdAsOwner() {
+        return ItemMapper.toItemDetailsInfoDto(itemService.getItemById(item.getId(), ownerId));
+    }
+
+    @Benchmark
+    public ItemDetailsInfoDto getItemByIdAsOtherUser() {
+        return ItemMapper.toItemDetailsInfoDto(itemService.getItemById(item.getId(), otherUserId));
+    }
+
+    @Benchmark
+    public List<ItemDetailsInfoDto> getItemsByOwnerId() {
+        return ItemMapper.toItemDetailsInfoDto(itemService.getItemsByOwnerId(ownerId, PAGE));
+    }
+
+    @Benchmark
+    public List<Item> searchItems() {
+        return itemService.searchItems("набор бит 7", PAGE);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Сервер на встроенной H2 (профиль test) с одинаковым для всех запусков набором данных
+public class ShareItDataset implements AutoCloseable {
+    private static final BookingStatus[] STATUSES = {
+            BookingStatus.APPROVED, BookingStatus.WAITING, BookingStatus.REJECTED, BookingStatus.APPROVED
+    };
+
+    private final ConfigurableApplicationContext context;
+    private final List<User> users = new ArrayList<>();
+    private final List<Item> items = new ArrayList<>();
+
+    // Аргументы вида --name=value переопределяют application.properties, в отличие от свойств по умолчанию
+    public ShareItDataset(int userCount, int itemsPerUser, int bookingsPerItem, String... args) {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=warn", "spring.jpa.properties.hibernate.format_sql=false")
+                .run(args);
+
+        seed(userCount, itemsPerUser, bookingsPerItem);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private void seed(int userCount, int itemsPerUser, int bookingsPerItem) {
+        UserRepository userRepository = getBean(UserRepository.class);
+        ItemRepository itemRepository = getBean(ItemRepository.class);
+        BookingRepository bookingRepository = getBean(BookingRepository.class);
+        CommentRepository commentRepository = getBean(CommentRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < userCount; i++) {
+            users.add(User.builder().name("Пользователь " + i).email("user" + i + "@mail.ru").build());
+        }
+        userRepository.saveAll(users);
+
+        for (User owner : users) {
+            for (int i = 0; i < itemsPerUser; i++) {
+                items.add(Item.builder()
+                        .name("Дрель " + owner.getId() + "-" + i)
+                        .description("Аккумуляторная дрель, набор бит " + i)
+                        .available(true)
+                        .owner(owner)
+                        .build());
+            }
+        }
+        itemRepository.saveAll(items);
+
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            User booker = users.get((i + 1) % users.size());
+
+            // Половина бронирований в прошлом, половина в будущем, одно текущее
+            for (int j = 0; j < bookingsPerItem; j++) {
+                LocalDateTime start = now.plusDays(j - bookingsPerItem / 2).minusHours(1);
+
+                bookings.add(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .start(start)
+                        .end(start.plusHours(2))
+                        .status(STATUSES[j % STATUSES.length])
+                        .build());
+            }
+
+            comments.add(Comment.builder()
+                    .text("Отличная вещь")
+                    .item(item)
+                    .author(booker)
+                    .created(now)
+                    .build());
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+    }
+}
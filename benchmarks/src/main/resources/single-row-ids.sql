@@ -0,0 +1,12 @@
+-- Генерация по одному идентификатору за обращение, как при identity до перехода на pooled-lo
+ALTER SEQUENCE users_seq INCREMENT BY 1;
+
+ALTER SEQUENCE item_requests_seq INCREMENT BY 1;
+
+ALTER SEQUENCE items_seq INCREMENT BY 1;
+
+ALTER SEQUENCE comments_seq INCREMENT BY 1;
+
+ALTER SEQUENCE bookings_seq INCREMENT BY 1;
+
+ALTER SEQUENCE booking_idempotency_keys_seq INCREMENT BY 1;
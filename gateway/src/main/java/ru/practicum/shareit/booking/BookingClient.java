@@ -1,60 +1,89 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMetrics;
+import ru.practicum.shareit.client.ResponseCache;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ObjectProvider<WebClient> webClient, ResponseCache responseCache,
+                         ClientMetrics clientMetrics) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                webClient.getIfAvailable(),
+                responseCache,
+                null,
+                Set.of("items"),
+                clientMetrics
         );
     }
 
-    public ResponseEntity<Object> getBookingsByBookerId(long bookerId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", bookerId, parameters);
+    public Mono<ResponseEntity<Object>> getBookingsByBookerId(long bookerId, BookingState state, Integer from, Integer size,
+                                                        String after) {
+        return get(pageQuery(after), bookerId, pageParameters(state, from, size, after));
     }
 
-    public ResponseEntity<Object> getBookingsByItemOwnerId(long itemOwnerId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", itemOwnerId, parameters);
+    public Mono<ResponseEntity<Object>> getBookingsByItemOwnerId(long itemOwnerId, BookingState state, Integer from,
+                                                           Integer size, String after) {
+        return get("/owner" + pageQuery(after), itemOwnerId, pageParameters(state, from, size, after));
     }
 
-    public ResponseEntity<Object> getBookingById(Long bookingId, Long userId) {
-        return get("/" + bookingId, userId);
+    public Mono<ResponseEntity<Object>> getBookingById(Long bookingId, Long userId, @Nullable String ifNoneMatch) {
+        return get("/" + bookingId, userId, null, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> createBooking(BookingCreationDto booking, Long userId) {
+    public Mono<ResponseEntity<Object>> createBooking(BookingCreationDto booking, Long userId) {
         return post("", userId, booking);
     }
 
-    public ResponseEntity<Object> approveOrRejectBooking(Long bookingId, Boolean isApproved, Long userId) {
+    public Mono<ResponseEntity<Object>> createBookings(List<BookingCreationDto> bookings, Long userId) {
+        return post("/batch", userId, bookings);
+    }
+
+    public Mono<ResponseEntity<Object>> approveOrRejectBooking(Long bookingId, Boolean isApproved, Long userId,
+                                                               @Nullable String idempotencyKey) {
         Map<String, Object> parameters = Map.of("approved", isApproved);
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null, idempotencyKey);
+    }
+
+    private static String pageQuery(String after) {
+        String query = "?state={state}&from={from}&size={size}";
+        return after == null ? query : query + "&after={after}";
+    }
+
+    private static Map<String, Object> pageParameters(BookingState state, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+
+        if (after != null) {
+            parameters.put("after", after);
+        }
+
+        return parameters;
     }
 }
\ No newline at end of file
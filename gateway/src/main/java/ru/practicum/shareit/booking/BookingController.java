@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.handlers.HeaderConstants;
@@ -20,6 +22,10 @@ import ru.practicum.shareit.handlers.HeaderConstants;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @RestController
 @RequestMapping("/bookings")
@@ -30,67 +36,78 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookingsByBookerId(
+    public Mono<ResponseEntity<Object>> getBookingsByBookerId(
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long bookerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size,
+            @RequestParam(required = false) String after
     ) {
-        log.debug("+ getBookingsByBookerId: bookerId={}, state={}, ", bookerId, state);
+        log.debug("+ getBookingsByBookerId: bookerId={}, state={}, after={}", bookerId, state, after);
 
         BookingState statusFilter = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        ResponseEntity<Object> bookings = bookingClient.getBookingsByBookerId(bookerId, statusFilter, from, size);
 
-        log.debug("- getBookingsByBookerId: {}", bookings);
-
-        return bookings;
+        return bookingClient.getBookingsByBookerId(bookerId, statusFilter, from, size, after)
+                .doOnNext(bookings -> log.debug("- getBookingsByBookerId: {}", bookings));
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsByItemOwnerId(
+    public Mono<ResponseEntity<Object>> getBookingsByItemOwnerId(
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long itemOwnerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size
+            @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size,
+            @RequestParam(required = false) String after
     ) {
-        log.debug("+ getBookingsByItemOwnerId: itemOwnerId={}, state={}, ", itemOwnerId, state);
+        log.debug("+ getBookingsByItemOwnerId: itemOwnerId={}, state={}, after={}", itemOwnerId, state, after);
 
         BookingState statusFilter = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        ResponseEntity<Object> bookings = bookingClient.getBookingsByItemOwnerId(itemOwnerId, statusFilter, from, size);
-
-        log.debug("- getBookingsByItemOwnerId: {}", bookings);
 
-        return bookings;
+        return bookingClient.getBookingsByItemOwnerId(itemOwnerId, statusFilter, from, size, after)
+                .doOnNext(bookings -> log.debug("- getBookingsByItemOwnerId: {}", bookings));
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBookingById(@PathVariable Long bookingId,
-                                                 @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long userId) {
-        log.debug("+ getBookingById: bookingId={}", bookingId);
-        ResponseEntity<Object> booking = bookingClient.getBookingById(bookingId, userId);
-        log.debug("- getBookingById: {}", booking);
-        return booking;
+    public Mono<ResponseEntity<Object>> getBookingById(
+            @PathVariable Long bookingId,
+            @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("+ getBookingById: bookingId={}, ifNoneMatch={}", bookingId, ifNoneMatch);
+        return bookingClient.getBookingById(bookingId, userId, ifNoneMatch)
+                .doOnNext(booking -> log.debug("- getBookingById: {}", booking));
     }
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestBody @Valid BookingCreationDto booking,
-                                                @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long userId) {
+    public Mono<ResponseEntity<Object>> createBooking(@RequestBody @Valid BookingCreationDto booking,
+                                                      @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long userId) {
         log.debug("+ createBooking: booking={}, userId={}", booking, userId);
-        ResponseEntity<Object> createdBooking = bookingClient.createBooking(booking, userId);
-        log.debug("- createBooking: {}", createdBooking);
+        return bookingClient.createBooking(booking, userId)
+                .doOnNext(createdBooking -> log.debug("- createBooking: {}", createdBooking));
+    }
 
-        return createdBooking;
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createBookings(
+            @RequestBody @NotEmpty @Size(max = 100) List<@Valid @NotNull BookingCreationDto> bookings,
+            @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long userId
+    ) {
+        log.debug("+ createBookings: bookings={}, userId={}", bookings, userId);
+        return bookingClient.createBookings(bookings, userId)
+                .doOnNext(createdBookings -> log.debug("- createBookings: {}", createdBookings));
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveOrRejectBooking(@PathVariable Long bookingId,
-                                                         @RequestParam(name = "approved") boolean isApproved,
-                                                         @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long userId) {
-        log.debug("+ approveOrRejectBooking: bookingId={}, isApproved={}, userId={}", bookingId, isApproved, userId);
-        ResponseEntity<Object> updatedBooking = bookingClient.approveOrRejectBooking(bookingId, isApproved, userId);
-        log.debug("- approveOrRejectBooking: {}", updatedBooking);
-        return updatedBooking;
+    public Mono<ResponseEntity<Object>> approveOrRejectBooking(@PathVariable Long bookingId,
+                                                               @RequestParam(name = "approved") boolean isApproved,
+                                                               @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long userId,
+                                                               @RequestHeader(value = HeaderConstants.IDEMPOTENCY_KEY,
+                                                                       required = false)
+                                                               @Size(max = 255) String idempotencyKey) {
+        log.debug("+ approveOrRejectBooking: bookingId={}, isApproved={}, userId={}, idempotencyKey={}", bookingId,
+                isApproved, userId, idempotencyKey);
+        return bookingClient.approveOrRejectBooking(bookingId, isApproved, userId, idempotencyKey)
+                .doOnNext(updatedBooking -> log.debug("- approveOrRejectBooking: {}", updatedBooking));
     }
 }
@@ -1,98 +1,337 @@
 package ru.practicum.shareit.client;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.handlers.HeaderConstants;
 
 public class BaseClient {
+    // Заголовки соединения между шлюзом и сервером не передаются клиенту
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "te", "trailer", "upgrade", "proxy-authenticate", "proxy-authorization");
+
     protected final RestTemplate rest;
+    private final WebClient webClient;
+    private final ResponseCache responseCache;
+    private final String cacheRegion;
+    private final Set<String> invalidatedRegions;
+    private final ClientMetrics clientMetrics;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, null, null, null, Set.of(), null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable WebClient webClient, @Nullable ResponseCache responseCache,
+                      @Nullable String cacheRegion, Set<String> invalidatedRegions,
+                      @Nullable ClientMetrics clientMetrics) {
         this.rest = rest;
+        this.webClient = webClient;
+        this.responseCache = responseCache;
+        this.cacheRegion = cacheRegion;
+        this.invalidatedRegions = invalidatedRegions;
+        this.clientMetrics = clientMetrics;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return get(path, userId, parameters, null);
+    }
+
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                               @Nullable String ifNoneMatch) {
+        if (responseCache != null && responseCache.isEnabled(cacheRegion)) {
+            return getWithCache(path, userId, parameters)
+                    .map(response -> notModifiedIfMatches(response, ifNoneMatch));
+        }
+
+        return exchange(HttpMethod.GET, path, userId, parameters, null, ifNoneMatchHeaders(ifNoneMatch));
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body, HttpHeaders.EMPTY);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body, HttpHeaders.EMPTY);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return patch(path, userId, parameters, body, null);
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                     T body, @Nullable String idempotencyKey) {
+        HttpHeaders headers = new HttpHeaders();
+
+        if (idempotencyKey != null) {
+            headers.set(HeaderConstants.IDEMPOTENCY_KEY, idempotencyKey);
+        }
+
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body, headers);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null, HttpHeaders.EMPTY);
+    }
+
+    // Потоковая передача NDJSON в обе стороны: тело запроса и ответа не накапливается в памяти шлюза.
+    // Всегда идет через RestTemplate: тело запроса копируется из InputStream прямо в соединение с сервером.
+    protected Mono<ResponseEntity<Object>> stream(HttpMethod method, String path, @Nullable InputStream body) {
+        return stream(method, path, null, body);
+    }
+
+    protected Mono<ResponseEntity<Object>> stream(HttpMethod method, String path,
+                                                  @Nullable Map<String, Object> parameters,
+                                                  @Nullable InputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON));
+
+        URI uri = expand(path, parameters);
+        Mono<ResponseEntity<Object>> response = Mono.fromCallable(() -> exchangeStreaming(method, uri, headers, body))
+                .doOnDiscard(ResponseEntity.class, BaseClient::releaseBody);
+
+        if (clientMetrics != null) {
+            response = clientMetrics.timed(getClass().getSimpleName(), method, path, response);
+        }
+
+        if (responseCache == null || method == HttpMethod.GET) {
+            return response;
+        }
+
+        return response.doOnNext(ignored -> responseCache.invalidate(invalidatedRegions));
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                                HttpHeaders requestHeaders) {
+        Mono<ResponseEntity<Object>> response = exchange(method, path, userId, parameters, body, requestHeaders);
+
+        if (responseCache == null) {
+            return response;
+        }
+
+        return response.doOnNext(ignored -> responseCache.invalidate(invalidatedRegions));
+    }
+
+    private static ResponseEntity<Object> notModifiedIfMatches(ResponseEntity<Object> response,
+                                                               @Nullable String ifNoneMatch) {
+        String etag = response.getHeaders().getETag();
+
+        if (ifNoneMatch == null || etag == null || response.getStatusCode() != HttpStatus.OK) {
+            return response;
+        }
+
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.setIfNoneMatch(ifNoneMatch);
+
+        boolean matches = requestHeaders.getIfNoneMatch().stream()
+                .anyMatch(tag -> tag.equals("*") || tag.replaceFirst("^W/", "").equals(etag));
+
+        if (!matches) {
+            return response;
+        }
+
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private Mono<ResponseEntity<Object>> getWithCache(String path, Long userId,
+                                                      @Nullable Map<String, Object> parameters) {
+        return Mono.defer(() -> {
+            URI uri = expand(path, parameters);
+            ResponseCache.Key key = new ResponseCache.Key(cacheRegion, userId, uri.toString());
+            ResponseCache.Entry entry = responseCache.get(key);
+
+            if (entry != null && entry.isFresh()) {
+                return Mono.just(entry.getResponse());
+            }
+
+            String etag = (entry != null) ? entry.getEtag() : null;
+
+            return exchange(HttpMethod.GET, path, userId, parameters, null, ifNoneMatchHeaders(etag))
+                    .flatMap(BaseClient::readBody)
+                    .map(response -> {
+                        if (entry != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                            return responseCache.revalidate(key, entry);
+                        }
+
+                        responseCache.put(key, response);
+
+                        return response;
+                    });
+        });
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, Long userId,
+                                                      @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                      HttpHeaders requestHeaders) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.addAll(requestHeaders);
 
-        ResponseEntity<Object> shareitServerResponse;
+        URI uri = expand(path, parameters);
+
+        Mono<ResponseEntity<Object>> response = ((webClient != null)
+                ? exchangeNonBlocking(method, uri, headers, body)
+                : Mono.fromCallable(() -> exchangeBlocking(method, uri, headers, body)))
+                .doOnDiscard(ResponseEntity.class, BaseClient::releaseBody);
+
+        if (clientMetrics == null) {
+            return response;
+        }
+
+        return clientMetrics.timed(getClass().getSimpleName(), method, path, response);
+    }
+
+    private <T> ResponseEntity<Object> exchangeBlocking(HttpMethod method, URI uri, HttpHeaders headers,
+                                                        @Nullable T body) {
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+            rest.httpEntityCallback(new HttpEntity<>(body, headers)).doWithRequest(request);
+
+            return prepareGatewayResponse(request.execute());
+        } catch (IOException e) {
+            throw new ResourceAccessException("Ошибка ввода-вывода при запросе " + method + " " + uri + ": " +
+                    e.getMessage(), e);
+        }
+    }
+
+    private ResponseEntity<Object> exchangeStreaming(HttpMethod method, URI uri, HttpHeaders headers,
+                                                     @Nullable InputStream body) {
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+            request.getHeaders().addAll(headers);
+
+            if (body != null) {
+                if (request instanceof StreamingHttpOutputMessage) {
+                    ((StreamingHttpOutputMessage) request).setBody(out -> StreamUtils.copy(body, out));
+                } else {
+                    StreamUtils.copy(body, request.getBody());
+                }
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+
+            return prepareGatewayResponse(request.execute());
+        } catch (IOException e) {
+            throw new ResourceAccessException("Ошибка ввода-вывода при запросе " + method + " " + uri + ": " +
+                    e.getMessage(), e);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchangeNonBlocking(HttpMethod method, URI uri, HttpHeaders headers,
+                                                                 @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(uri)
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+
+        WebClient.RequestHeadersSpec<?> requestWithBody = (body != null) ? request.bodyValue(body) : request;
+
+        HttpServletRequest servletRequest = UpstreamBodyReleasingInterceptor.currentRequest();
+
+        // Тело ответа сервера передается клиенту потоком буферов, без разбора JSON и без ограничения размера.
+        // Ошибочные статусы сервера передаются клиенту так же, как в блокирующем режиме.
+        return requestWithBody.retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> prepareGatewayResponse(response, servletRequest));
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return (parameters != null)
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+    }
+
+    private static Mono<ResponseEntity<Object>> readBody(ResponseEntity<Object> response) {
+        if (!(response.getBody() instanceof UpstreamBody)) {
+            return Mono.just(response);
+        }
+
+        UpstreamBody body = (UpstreamBody) response.getBody();
+
+        return body.toByteArray()
+                .map(bytes -> ResponseEntity.status(response.getStatusCode())
+                        .headers(response.getHeaders())
+                        .<Object>body(bytes))
+                .onErrorMap(IOException.class, e -> new ResourceAccessException("Ошибка чтения ответа сервера: " +
+                        e.getMessage(), e))
+                .doFinally(signal -> body.close());
+    }
+
+    // Ответ, отброшенный после отмены подписки, сразу возвращает соединение в пул
+    private static void releaseBody(ResponseEntity<?> response) {
+        if (response.getBody() instanceof UpstreamBody) {
+            ((UpstreamBody) response.getBody()).close();
+        }
+    }
+
+    private static HttpHeaders ifNoneMatchHeaders(@Nullable String etag) {
+        HttpHeaders headers = new HttpHeaders();
+
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+
+        return headers;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,17 +344,52 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static HttpHeaders endToEndHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.addAll(name, values);
+            }
+        });
+
+        return headers;
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ClientHttpResponse response) throws IOException {
+        HttpHeaders headers = endToEndHeaders(response.getHeaders());
+        int statusCode = response.getRawStatusCode();
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(statusCode).headers(headers);
+
+        if (statusCode == HttpStatus.NO_CONTENT.value() || statusCode == HttpStatus.NOT_MODIFIED.value()
+                || headers.getContentLength() == 0) {
+            response.close();
+            return responseBuilder.build();
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        // Соединение с сервером закрывается после копирования тела в UpstreamBodyHttpMessageConverter,
+        // а если ответ так и не был записан - по завершении запроса
+        UpstreamBody body = UpstreamBody.of(response);
+        UpstreamBodyReleasingInterceptor.register(body);
+
+        return responseBuilder.body(body);
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Flux<DataBuffer>> response,
+                                                                 @Nullable HttpServletRequest servletRequest) {
+        HttpHeaders headers = endToEndHeaders(response.getHeaders());
+        int statusCode = response.getStatusCodeValue();
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(statusCode).headers(headers);
+        UpstreamBody body = UpstreamBody.of(Objects.requireNonNull(response.getBody()));
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (statusCode == HttpStatus.NO_CONTENT.value() || statusCode == HttpStatus.NOT_MODIFIED.value()
+                || headers.getContentLength() == 0) {
+            body.close();
+            return responseBuilder.build();
         }
 
-        return responseBuilder.build();
+        UpstreamBodyReleasingInterceptor.register(body, servletRequest);
+
+        return responseBuilder.body(body);
     }
 }
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.regex.Pattern;
+
+@Component
+public class ClientMetrics {
+    private static final String TIMER_NAME = "gateway.client.requests";
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final MeterRegistry meterRegistry;
+
+    public ClientMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Время запроса к серверу до получения заголовков ответа
+    public Mono<ResponseEntity<Object>> timed(String client, HttpMethod method, String path,
+                                              Mono<ResponseEntity<Object>> response) {
+        String uri = uriTemplate(path);
+
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+
+            return response
+                    .doOnSuccess(entity -> sample.stop(timer(client, method, uri,
+                            (entity != null) ? String.valueOf(entity.getStatusCodeValue()) : "NONE")))
+                    .doOnError(e -> sample.stop(timer(client, method, uri, "IO_ERROR")));
+        });
+    }
+
+    private Timer timer(String client, HttpMethod method, String uri, String status) {
+        return Timer.builder(TIMER_NAME)
+                .description("Время запросов шлюза к серверу")
+                .tag("client", client)
+                .tag("method", method.name())
+                .tag("uri", uri)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    // Идентификаторы в пути заменяются шаблоном, чтобы число временных рядов не росло с числом объектов
+    private static String uriTemplate(String path) {
+        int queryStart = path.indexOf('?');
+        String pathOnly = (queryStart >= 0) ? path.substring(0, queryStart) : path;
+        String template = ID_SEGMENT.matcher(pathOnly).replaceAll("/{id}");
+
+        return template.isEmpty() ? "/" : template;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+    private final Timer leaseTimer;
+    private final Counter exhaustedCounter;
+
+    public MeteredConnectionManager(MeterRegistry meterRegistry, String poolName) {
+        this.leaseTimer = Timer.builder("gateway.client.pool.lease")
+                .description("Время ожидания свободного соединения с сервером")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("gateway.client.pool.exhausted")
+                .description("Запросы, не дождавшиеся свободного соединения")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                Timer.Sample sample = Timer.start();
+
+                try {
+                    return request.get(timeout, timeUnit);
+                } catch (ConnectionPoolTimeoutException e) {
+                    exhaustedCounter.increment();
+                    throw e;
+                } finally {
+                    sample.stop(leaseTimer);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+}
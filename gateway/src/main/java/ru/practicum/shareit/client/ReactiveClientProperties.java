@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.client.reactive")
+public class ReactiveClientProperties {
+    private int maxConnections = 500;
+
+    // Сколько запросов может ждать свободного соединения, прежде чем шлюз начнет отказывать
+    private int pendingAcquireMaxCount = 1_000;
+
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    private Duration responseTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@Slf4j
+public class ResponseCache {
+    private final ResponseCacheProperties properties;
+    private final Cache<Key, Entry> cache;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getRetention())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+    }
+
+    public boolean isEnabled(@Nullable String region) {
+        return properties.isEnabled() && region != null && !properties.ttlFor(region).isZero();
+    }
+
+    @Nullable
+    public Entry get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, ResponseEntity<Object> response) {
+        if (response.getStatusCode() != HttpStatus.OK) {
+            return;
+        }
+
+        cache.put(key, new Entry(response, response.getHeaders().getETag(), freshUntil(key)));
+    }
+
+    public ResponseEntity<Object> revalidate(Key key, Entry entry) {
+        cache.put(key, new Entry(entry.getResponse(), entry.getEtag(), freshUntil(key)));
+        return entry.getResponse();
+    }
+
+    public void invalidate(Collection<String> regions) {
+        if (!properties.isEnabled() || regions.isEmpty()) {
+            return;
+        }
+
+        log.debug("Очистка кэша ответов для {}", regions);
+        cache.asMap().keySet().removeIf(key -> regions.contains(key.getRegion()));
+    }
+
+    private Instant freshUntil(Key key) {
+        Duration ttl = properties.ttlFor(key.getRegion());
+        return Instant.now().plus(ttl);
+    }
+
+    @Value
+    public static class Key {
+        String region;
+        Long userId;
+        String uri;
+    }
+
+    @Value
+    public static class Entry {
+        ResponseEntity<Object> response;
+        String etag;
+        Instant freshUntil;
+
+        public boolean isFresh() {
+            return Instant.now().isBefore(freshUntil);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-gateway.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = false;
+
+    private long maximumSize = 10_000;
+
+    // Сколько хранить устаревший ответ для повторной проверки по ETag
+    private Duration retention = Duration.ofMinutes(10);
+
+    private Duration defaultTtl = Duration.ofSeconds(5);
+
+    private Map<String, Duration> ttl = new HashMap<>();
+
+    public Duration ttlFor(String region) {
+        return ttl.getOrDefault(region, defaultTtl);
+    }
+}
@@ -0,0 +1,136 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Тело ответа сервера, которое передается клиенту как есть, без разбора JSON и без накопления в памяти
+public abstract class UpstreamBody implements Closeable {
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public static UpstreamBody of(ClientHttpResponse response) {
+        return new ClientHttpResponseBody(response);
+    }
+
+    public static UpstreamBody of(Flux<DataBuffer> buffers) {
+        return new DataBufferBody(buffers);
+    }
+
+    public abstract void writeTo(OutputStream out, byte[] buffer) throws IOException;
+
+    public abstract Mono<byte[]> toByteArray();
+
+    // Тело закрывает и конвертер после записи, и UpstreamBodyReleasingInterceptor по завершении запроса
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    protected abstract void release();
+
+    private static class ClientHttpResponseBody extends UpstreamBody {
+        private final ClientHttpResponse response;
+
+        ClientHttpResponseBody(ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void writeTo(OutputStream out, byte[] buffer) throws IOException {
+            try (InputStream in = response.getBody()) {
+                int read;
+
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+
+        @Override
+        public Mono<byte[]> toByteArray() {
+            return Mono.fromCallable(() -> {
+                try (InputStream in = response.getBody()) {
+                    return StreamUtils.copyToByteArray(in);
+                }
+            });
+        }
+
+        @Override
+        protected void release() {
+            response.close();
+        }
+    }
+
+    // Тело ответа WebClient можно прочитать только один раз, поэтому подписка отслеживается
+    private static class DataBufferBody extends UpstreamBody {
+        private final Flux<DataBuffer> buffers;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        DataBufferBody(Flux<DataBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        // Каждый буфер освобождается сразу после записи клиенту
+        @Override
+        public void writeTo(OutputStream out, byte[] buffer) throws IOException {
+            try {
+                DataBufferUtils.write(subscribe(), out)
+                        .doOnNext(DataBufferUtils::release)
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                        .then()
+                        .block();
+            } catch (RuntimeException e) {
+                Throwable cause = Exceptions.unwrap(e);
+
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+
+                throw e;
+            }
+        }
+
+        @Override
+        public Mono<byte[]> toByteArray() {
+            return DataBufferUtils.join(Flux.defer(this::subscribe))
+                    .map(dataBuffer -> {
+                        byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                        dataBuffer.read(bytes);
+                        DataBufferUtils.release(dataBuffer);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0]);
+        }
+
+        // Непрочитанное тело вычитывается и освобождается, как это делает сам WebClient,
+        // чтобы соединение вернулось в пул
+        @Override
+        protected void release() {
+            if (subscribed.compareAndSet(false, true)) {
+                buffers.doOnNext(DataBufferUtils::release)
+                        .onErrorResume(error -> Mono.empty())
+                        .subscribe();
+            }
+        }
+
+        private Flux<DataBuffer> subscribe() {
+            if (!subscribed.compareAndSet(false, true)) {
+                return Flux.error(new IllegalStateException("Тело ответа сервера уже прочитано."));
+            }
+
+            return buffers;
+        }
+    }
+}
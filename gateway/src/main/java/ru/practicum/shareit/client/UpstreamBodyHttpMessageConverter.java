@@ -0,0 +1,55 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+@Component
+public class UpstreamBodyHttpMessageConverter extends AbstractHttpMessageConverter<UpstreamBody> {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 256;
+
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    public UpstreamBodyHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UpstreamBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected UpstreamBody readInternal(Class<? extends UpstreamBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Чтение тела ответа сервера не поддерживается.", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(UpstreamBody body, HttpOutputMessage outputMessage) throws IOException {
+        byte[] buffer = Objects.requireNonNullElseGet(buffers.poll(), () -> new byte[BUFFER_SIZE]);
+
+        // Тело ответа сервера копируется в ответ клиенту без разбора JSON
+        try (body) {
+            OutputStream out = outputMessage.getBody();
+            body.writeTo(out, buffer);
+            out.flush();
+        } finally {
+            buffers.offer(buffer);
+        }
+    }
+}
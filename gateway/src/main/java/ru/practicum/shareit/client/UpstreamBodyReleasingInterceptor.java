@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Ответ сервера может так и не дойти до UpstreamBodyHttpMessageConverter: клиент отключился до записи результата,
+// оператор после получения ответа бросил исключение и т.п. Незакрытые тела закрываются по завершении запроса,
+// чтобы соединение вернулось в пул.
+@Component
+public class UpstreamBodyReleasingInterceptor implements DeferredResultProcessingInterceptor, WebMvcConfigurer {
+    private static final String BODIES_ATTRIBUTE = UpstreamBodyReleasingInterceptor.class.getName() + ".BODIES";
+
+    @Nullable
+    public static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+        return (attributes instanceof ServletRequestAttributes)
+                ? ((ServletRequestAttributes) attributes).getRequest()
+                : null;
+    }
+
+    public static void register(UpstreamBody body) {
+        register(body, currentRequest());
+    }
+
+    // Реактивный клиент получает ответ в потоке Reactor Netty, поэтому запрос передается явно
+    public static void register(UpstreamBody body, @Nullable HttpServletRequest request) {
+        if (request == null) {
+            return;
+        }
+
+        Queue<UpstreamBody> bodies = getBodies(request);
+
+        if (bodies == null) {
+            bodies = new ConcurrentLinkedQueue<>();
+            request.setAttribute(BODIES_ATTRIBUTE, bodies);
+        }
+
+        bodies.add(body);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerDeferredResultInterceptors(this);
+    }
+
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+        Queue<UpstreamBody> bodies = (servletRequest != null) ? getBodies(servletRequest) : null;
+
+        if (bodies != null) {
+            bodies.forEach(UpstreamBody::close);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Queue<UpstreamBody> getBodies(HttpServletRequest request) {
+        return (Queue<UpstreamBody>) request.getAttribute(BODIES_ATTRIBUTE);
+    }
+}
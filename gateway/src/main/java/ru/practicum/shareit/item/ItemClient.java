@@ -1,33 +1,47 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMetrics;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentCreationDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ObjectProvider<WebClient> webClient, ResponseCache responseCache,
+                      ClientMetrics clientMetrics) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                webClient.getIfAvailable(),
+                responseCache,
+                "items",
+                Set.of("items", "requests"),
+                clientMetrics
         );
     }
 
-    public ResponseEntity<Object> getItemsByOwnerId(long ownerId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getItemsByOwnerId(long ownerId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -35,11 +49,30 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", ownerId, parameters);
     }
 
-    public ResponseEntity<Object> getItemById(Long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemById(Long itemId, long userId, @Nullable String ifNoneMatch) {
+        return get("/" + itemId, userId, null, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getItemAvailability(Long itemId, @Nullable LocalDateTime from,
+                                                            @Nullable LocalDateTime to) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder path = new StringBuilder("/" + itemId + "/availability");
+
+        // Незаданные границы периода сервер подставляет сам
+        if (from != null) {
+            parameters.put("from", from);
+            path.append("?from={from}");
+        }
+
+        if (to != null) {
+            parameters.put("to", to);
+            path.append(parameters.size() == 1 ? "?" : "&").append("to={to}");
+        }
+
+        return get(path.toString(), null, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> searchItems(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -48,19 +81,19 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> createItem(ItemCreationDto item, long userId) {
+    public Mono<ResponseEntity<Object>> createItem(ItemCreationDto item, long userId) {
         return post("", userId, item);
     }
 
-    public ResponseEntity<Object> updateItem(Long itemId, ItemCreationDto item, long userId) {
+    public Mono<ResponseEntity<Object>> updateItem(Long itemId, ItemCreationDto item, long userId) {
         return patch("/" + itemId, userId, item);
     }
 
-    public ResponseEntity<Object> deleteItem(Long itemId) {
+    public Mono<ResponseEntity<Object>> deleteItem(Long itemId) {
         return delete("/" + itemId);
     }
 
-    public ResponseEntity<Object> createComment(Long itemId, CommentCreationDto comment, long userId) {
+    public Mono<ResponseEntity<Object>> createComment(Long itemId, CommentCreationDto comment, long userId) {
         return post("/" + itemId + "/comment", userId, comment);
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.handlers.HeaderConstants;
 import ru.practicum.shareit.item.dto.CommentCreationDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
@@ -21,6 +24,7 @@ import ru.practicum.shareit.validation.ValidationGroup;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/items")
@@ -31,64 +35,74 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getItemsByOwnerId(
+    public Mono<ResponseEntity<Object>> getItemsByOwnerId(
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long ownerId,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size
     ) {
         log.debug("+ getItemsByOwnerId: ownerId={}", ownerId);
-        ResponseEntity<Object> items = itemClient.getItemsByOwnerId(ownerId, from, size);
-        log.debug("- getItemsByOwnerId: {}", items);
-        return items;
+        return itemClient.getItemsByOwnerId(ownerId, from, size)
+                .doOnNext(items -> log.debug("- getItemsByOwnerId: {}", items));
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId,
-                                              @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
-        log.debug("+ getItemById: itemId={}", itemId);
-        ResponseEntity<Object> item = itemClient.getItemById(itemId, userId);
-        log.debug("- getItemById: {}", item);
-        return item;
+    public Mono<ResponseEntity<Object>> getItemById(
+            @PathVariable Long itemId,
+            @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("+ getItemById: itemId={}, ifNoneMatch={}", itemId, ifNoneMatch);
+        return itemClient.getItemById(itemId, userId, ifNoneMatch)
+                .doOnNext(item -> log.debug("- getItemById: {}", item));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.debug("+ getItemAvailability: itemId={}, from={}, to={}", itemId, from, to);
+        return itemClient.getItemAvailability(itemId, from, to)
+                .doOnNext(slots -> log.debug("- getItemAvailability: {}", slots));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(
+    public Mono<ResponseEntity<Object>> searchItems(
             @RequestParam String text,
             @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
             @RequestParam(value = "size", defaultValue = "20") @Min(1) @Max(100) Integer size
     ) {
         log.debug("+ searchItems: text={}", text);
-        ResponseEntity<Object> items = itemClient.searchItems(text, from, size);
-        log.debug("- searchItems: {}", items);
-        return items;
+        return itemClient.searchItems(text, from, size)
+                .doOnNext(items -> log.debug("- searchItems: {}", items));
     }
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestBody @Validated(ValidationGroup.OnCreate.class) ItemCreationDto item,
-                                             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
+    public Mono<ResponseEntity<Object>> createItem(@RequestBody @Validated(ValidationGroup.OnCreate.class) ItemCreationDto item,
+                                                   @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
         log.info("+ createItem: item={}, userId={}", item, userId);
-        ResponseEntity<Object> createdItem = itemClient.createItem(item, userId);
-        log.debug("- createItem: {}", createdItem);
-        return createdItem;
+        return itemClient.createItem(item, userId)
+                .doOnNext(createdItem -> log.debug("- createItem: {}", createdItem));
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@PathVariable Long itemId,
-                                             @RequestBody @Validated(ValidationGroup.OnUpdate.class) ItemCreationDto item,
-                                             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
+    public Mono<ResponseEntity<Object>> updateItem(@PathVariable Long itemId,
+                                                   @RequestBody @Validated(ValidationGroup.OnUpdate.class) ItemCreationDto item,
+                                                   @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
         log.debug("+ updateItem: itemId={}, item={}, userId={}", itemId, item, userId);
-        ResponseEntity<Object> updatedItem = itemClient.updateItem(itemId, item, userId);
-        log.debug("- updateItem: {}", updatedItem);
-        return updatedItem;
+        return itemClient.updateItem(itemId, item, userId)
+                .doOnNext(updatedItem -> log.debug("- updateItem: {}", updatedItem));
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@PathVariable Long itemId,
-                                                @RequestBody @Valid CommentCreationDto comment,
-                                                @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
+    public Mono<ResponseEntity<Object>> createComment(@PathVariable Long itemId,
+                                                      @RequestBody @Valid CommentCreationDto comment,
+                                                      @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
         log.debug("+ createComment: comment={}, itemId={}, userId={}", comment, itemId, userId);
-        ResponseEntity<Object> createdComment = itemClient.createComment(itemId, comment, userId);
-        log.debug("- createComment: {}", createdComment);
-        return createdComment;
+        return itemClient.createComment(itemId, comment, userId)
+                .doOnNext(createdComment -> log.debug("- createComment: {}", createdComment));
     }
 }
\ No newline at end of file
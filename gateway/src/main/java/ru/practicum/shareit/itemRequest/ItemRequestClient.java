@@ -1,36 +1,47 @@
 package ru.practicum.shareit.itemRequest;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMetrics;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestCreationDto;
 
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             ObjectProvider<WebClient> webClient, ResponseCache responseCache,
+                             ClientMetrics clientMetrics) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                webClient.getIfAvailable(),
+                responseCache,
+                "requests",
+                Set.of("requests"),
+                clientMetrics
         );
     }
 
-    public ResponseEntity<Object> getItemRequestsByRequestorId(long requestorId) {
+    public Mono<ResponseEntity<Object>> getItemRequestsByRequestorId(long requestorId) {
         return get("", requestorId);
     }
 
-    public ResponseEntity<Object> getItemRequests(Integer from, Integer size, long userId) {
+    public Mono<ResponseEntity<Object>> getItemRequests(Integer from, Integer size, long userId) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -38,11 +49,11 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemRequestById(Long itemRequestId, long userId) {
+    public Mono<ResponseEntity<Object>> getItemRequestById(Long itemRequestId, long userId) {
         return get("/" + itemRequestId, userId);
     }
 
-    public ResponseEntity<Object> createItemRequest(ItemRequestCreationDto itemRequest, long userId) {
+    public Mono<ResponseEntity<Object>> createItemRequest(ItemRequestCreationDto itemRequest, long userId) {
         return post("", userId, itemRequest);
     }
 }
\ No newline at end of file
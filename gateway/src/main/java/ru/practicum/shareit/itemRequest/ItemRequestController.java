@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.handlers.HeaderConstants;
 import ru.practicum.shareit.itemRequest.dto.ItemRequestCreationDto;
 import ru.practicum.shareit.validation.ValidationGroup;
@@ -28,44 +29,40 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @GetMapping
-    public ResponseEntity<Object> getItemRequestsByRequestorId(
+    public Mono<ResponseEntity<Object>> getItemRequestsByRequestorId(
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long requestorId
     ) {
         log.debug("+ getItemRequestsByRequestorId: requestorId={}", requestorId);
-        ResponseEntity<Object> itemRequest = itemRequestClient.getItemRequestsByRequestorId(requestorId);
-        log.debug("- getItemRequestsByRequestorId: {}", itemRequest);
-        return itemRequest;
+        return itemRequestClient.getItemRequestsByRequestorId(requestorId)
+                .doOnNext(itemRequest -> log.debug("- getItemRequestsByRequestorId: {}", itemRequest));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getItemRequests(
+    public Mono<ResponseEntity<Object>> getItemRequests(
             @RequestParam(defaultValue = "0") @Min(0) Integer from,
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size,
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId
     ) {
         log.debug("+ getItemRequestsByRequestorId: from={}, size={}, userId={}", from, size, userId);
-        ResponseEntity<Object> itemRequests = itemRequestClient.getItemRequests(from, size, userId);
-        log.debug("- getItemRequestsByRequestorId: {}", itemRequests);
-        return itemRequests;
+        return itemRequestClient.getItemRequests(from, size, userId)
+                .doOnNext(itemRequests -> log.debug("- getItemRequestsByRequestorId: {}", itemRequests));
     }
 
     @GetMapping("/{itemRequestId}")
-    public ResponseEntity<Object> getItemRequestById(@PathVariable Long itemRequestId,
-                                                     @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
+    public Mono<ResponseEntity<Object>> getItemRequestById(@PathVariable Long itemRequestId,
+                                                           @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
         log.debug("+ getItemRequestById: itemRequestId={}", itemRequestId);
-        ResponseEntity<Object> itemRequest = itemRequestClient.getItemRequestById(itemRequestId, userId);
-        log.debug("- getItemRequestById: {}", itemRequest);
-        return itemRequest;
+        return itemRequestClient.getItemRequestById(itemRequestId, userId)
+                .doOnNext(itemRequest -> log.debug("- getItemRequestById: {}", itemRequest));
     }
 
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(
+    public Mono<ResponseEntity<Object>> createItemRequest(
             @RequestBody @Validated(ValidationGroup.OnCreate.class) ItemRequestCreationDto itemRequest,
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId
     ) {
         log.debug("+ createItemRequest: itemRequest={}, userId={}", itemRequest, userId);
-        ResponseEntity<Object> createdItemRequest = itemRequestClient.createItemRequest(itemRequest, userId);
-        log.debug("- createItemRequest: {}", createdItemRequest);
-        return createdItemRequest;
+        return itemRequestClient.createItemRequest(itemRequest, userId)
+                .doOnNext(createdItemRequest -> log.debug("- createItemRequest: {}", createdItemRequest));
     }
 }
\ No newline at end of file
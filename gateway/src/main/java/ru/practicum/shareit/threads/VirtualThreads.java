@@ -0,0 +1,19 @@
+package ru.practicum.shareit.threads;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@UtilityClass
+public class VirtualThreads {
+    // Метод появился в JDK 21, при сборке под Java 11 вызывается через рефлексию
+    public ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Виртуальные потоки не поддерживаются в JDK " + Runtime.version() +
+                    ", требуется JDK 21 или новее.", e);
+        }
+    }
+}
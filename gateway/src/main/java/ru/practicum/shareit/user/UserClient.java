@@ -1,46 +1,93 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ClientMetrics;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ObjectProvider<WebClient> webClient, ResponseCache responseCache,
+                      ClientMetrics clientMetrics) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                webClient.getIfAvailable(),
+                responseCache,
+                "users",
+                Set.of("users", "items"),
+                clientMetrics
         );
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public Mono<ResponseEntity<Object>> getUsers(Integer from, Integer size, @Nullable Long after) {
+        return get(pageQuery(after), null, pageParameters(from, size, after));
+    }
+
+    // Сервер отдает всех пользователей постранично в одном ответе, шлюз передает его клиенту без буферизации
+    public Mono<ResponseEntity<Object>> streamUsers(Integer from, Integer size, @Nullable Long after) {
+        return stream(HttpMethod.GET, pageQuery(after) + "&stream=true", pageParameters(from, size, after), null);
     }
 
-    public ResponseEntity<Object> getUserById(Long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(Long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> createUser(UserDto user) {
+    public Mono<ResponseEntity<Object>> createUser(UserDto user) {
         return post("", user);
     }
 
-    public ResponseEntity<Object> updateUser(Long userId, UserDto user) {
+    public Mono<ResponseEntity<Object>> updateUser(Long userId, UserDto user) {
         return patch("/" + userId, user);
     }
 
-    public ResponseEntity<Object> deleteUser(Long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(Long userId) {
         return delete("/" + userId);
     }
-}
\ No newline at end of file
+
+    public Mono<ResponseEntity<Object>> exportUsers() {
+        return stream(HttpMethod.GET, "/export", null);
+    }
+
+    public Mono<ResponseEntity<Object>> importUsers(InputStream users) {
+        return stream(HttpMethod.POST, "/import", users);
+    }
+
+    private static String pageQuery(@Nullable Long after) {
+        String query = "?from={from}&size={size}";
+        return after == null ? query : query + "&after={after}";
+    }
+
+    private static Map<String, Object> pageParameters(Integer from, Integer size, @Nullable Long after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+
+        if (after != null) {
+            parameters.put("after", after);
+        }
+
+        return parameters;
+    }
+}
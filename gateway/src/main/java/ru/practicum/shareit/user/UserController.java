@@ -2,6 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,55 +12,82 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validation.ValidationGroup;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
-        log.debug("+ getUsers");
-        ResponseEntity<Object> users = userClient.getUsers();
-        log.debug("- getUsers: {}", users);
-        return users;
+    public Mono<ResponseEntity<Object>> getUsers(
+            @RequestParam(defaultValue = "0") @Min(0) Integer from,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "false") boolean stream
+    ) {
+        log.debug("+ getUsers: from={}, size={}, after={}, stream={}", from, size, after, stream);
+
+        if (stream) {
+            return userClient.streamUsers(from, size, after)
+                    .doOnNext(result -> log.debug("- getUsers: {}", result.getStatusCode()));
+        }
+
+        return userClient.getUsers(from, size, after)
+                .doOnNext(users -> log.debug("- getUsers: {}", users));
+    }
+
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Object>> exportUsers() {
+        log.debug("+ exportUsers");
+        return userClient.exportUsers()
+                .doOnNext(result -> log.debug("- exportUsers"));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Object>> importUsers(InputStream users) {
+        log.debug("+ importUsers");
+        return userClient.importUsers(users)
+                .doOnNext(result -> log.debug("- importUsers: {}", result.getStatusCode()));
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable Long userId) {
         log.debug("+ getUserById: userId={}", userId);
-        ResponseEntity<Object> user = userClient.getUserById(userId);
-        log.debug("- getUserById: {}", user);
-        return user;
+        return userClient.getUserById(userId)
+                .doOnNext(user -> log.debug("- getUserById: {}", user));
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Validated(ValidationGroup.OnCreate.class) UserDto user) {
+    public Mono<ResponseEntity<Object>> createUser(@RequestBody @Validated(ValidationGroup.OnCreate.class) UserDto user) {
         log.debug("+ createUser: {}", user);
-        ResponseEntity<Object> createdUser = userClient.createUser(user);
-        log.debug("- createUser: {}", createdUser);
-        return createdUser;
+        return userClient.createUser(user)
+                .doOnNext(createdUser -> log.debug("- createUser: {}", createdUser));
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable Long userId,
-                              @RequestBody @Validated(ValidationGroup.OnUpdate.class) UserDto user) {
+    public Mono<ResponseEntity<Object>> updateUser(@PathVariable Long userId,
+                                                   @RequestBody @Validated(ValidationGroup.OnUpdate.class) UserDto user) {
         log.debug("+ updateUser: {}", user);
-        ResponseEntity<Object> updatedUser = userClient.updateUser(userId, user);
-        log.debug("- updateUser: {}", updatedUser);
-        return updatedUser;
+        return userClient.updateUser(userId, user)
+                .doOnNext(updatedUser -> log.debug("- updateUser: {}", updatedUser));
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable Long userId) {
         log.debug("+ deleteUser: userId={}", userId);
-        ResponseEntity<Object> result = userClient.deleteUser(userId);
-        log.debug("- deleteUser");
-        return result;
+        return userClient.deleteUser(userId)
+                .doOnNext(result -> log.debug("- deleteUser"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+
+@DisplayName("Тесты потоковой передачи ответов в реактивном режиме")
+class ReactiveClientStreamingTest {
+    // Больше ограничения WebClient по умолчанию на буферизацию тела (256 КБ)
+    private static final int LARGE_BODY_SIZE = 300 * 1024;
+
+    private final String largeBody = "{\"description\":\"" + "a".repeat(LARGE_BODY_SIZE) + "\"}";
+
+    private HttpServer server;
+    private TestClient client;
+    private TestClient cachingClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/items/1", exchange -> respond(exchange, HttpStatus.OK, largeBody));
+        server.createContext("/items/404", exchange -> respond(exchange, HttpStatus.NOT_FOUND, "{\"error\":\"404\"}"));
+        server.start();
+
+        String serverUrl = "http://localhost:" + server.getAddress().getPort() + "/items";
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(serverUrl));
+        client = new TestClient(rest, WebClient.create(), null);
+        cachingClient = new TestClient(rest, WebClient.create(),
+                new ResponseCache(cacheProperties(), new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Передавать клиенту тело больше 256 КБ")
+    public void shouldStreamBodyLargerThanDefaultBufferLimit() throws IOException {
+        ResponseEntity<Object> response = Objects.requireNonNull(client.getItem(1L).block());
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(largeBody, write(response));
+    }
+
+    @Test
+    @DisplayName("Передавать клиенту ошибочный статус сервера вместе с телом")
+    public void shouldPassErrorStatusWithBody() throws IOException {
+        ResponseEntity<Object> response = Objects.requireNonNull(client.getItem(404L).block());
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals("{\"error\":\"404\"}", write(response));
+    }
+
+    @Test
+    @DisplayName("Кэшировать тело больше 256 КБ")
+    public void shouldCacheBodyLargerThanDefaultBufferLimit() {
+        ResponseEntity<Object> response = Objects.requireNonNull(cachingClient.getItem(1L).block());
+
+        Assertions.assertEquals(largeBody, new String((byte[]) Objects.requireNonNull(response.getBody()),
+                StandardCharsets.UTF_8));
+    }
+
+    private static String write(ResponseEntity<Object> response) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        new UpstreamBodyHttpMessageConverter().write((UpstreamBody) Objects.requireNonNull(response.getBody()),
+                MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, HttpStatus status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(status.value(), bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static ResponseCacheProperties cacheProperties() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        return properties;
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest, WebClient webClient, ResponseCache responseCache) {
+            super(rest, webClient, responseCache, "items", Set.of("items"), null);
+        }
+
+        Mono<ResponseEntity<Object>> getItem(Long itemId) {
+            return get("/" + itemId, 1L);
+        }
+    }
+}
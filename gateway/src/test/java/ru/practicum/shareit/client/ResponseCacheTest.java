@@ -0,0 +1,164 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@DisplayName("Тесты для ResponseCache")
+class ResponseCacheTest {
+    private static final String SERVER_URL = "http://localhost:9090/items";
+    private static final String ITEM_JSON = "{\"id\":1,\"name\":\"Дрель\"}";
+    private static final String ETAG = "\"v1\"";
+    private static final long USER_ID = 1L;
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+
+    private MockRestServiceServer server;
+    private ResponseCache responseCache;
+    private TestClient client;
+
+    @BeforeEach
+    public void setUp() {
+        properties.setEnabled(true);
+        properties.setTtl(Map.of("items", Duration.ofMinutes(1)));
+
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(SERVER_URL));
+        server = MockRestServiceServer.bindTo(rest).build();
+
+        responseCache = new ResponseCache(properties, new SimpleMeterRegistry());
+        client = new TestClient(rest, responseCache);
+    }
+
+    @Test
+    @DisplayName("Отдавать свежий ответ из кэша без запроса к серверу")
+    public void shouldReturnFreshResponseFromCache() {
+        expectItem();
+
+        ResponseEntity<Object> first = client.getItem(1L).block();
+        ResponseEntity<Object> second = client.getItem(1L).block();
+
+        server.verify();
+        Assertions.assertEquals(ITEM_JSON, bodyOf(first));
+        Assertions.assertEquals(ITEM_JSON, bodyOf(second));
+        Assertions.assertEquals(ETAG, Objects.requireNonNull(second).getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("Продлевать устаревшую запись, если сервер ответил 304 на If-None-Match")
+    public void shouldRefreshStaleEntryWhenServerRespondsNotModified() throws InterruptedException {
+        properties.setTtl(Map.of("items", Duration.ofMillis(1)));
+        expectItem();
+        server.expect(requestTo(SERVER_URL + "/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(eTagHeaders()));
+
+        client.getItem(1L).block();
+        ResponseCache.Entry staleEntry = Objects.requireNonNull(responseCache.get(itemKey(1L)));
+        Thread.sleep(10);
+        Assertions.assertFalse(staleEntry.isFresh());
+
+        ResponseEntity<Object> revalidated = client.getItem(1L).block();
+
+        server.verify();
+        ResponseCache.Entry refreshedEntry = Objects.requireNonNull(responseCache.get(itemKey(1L)));
+        Assertions.assertEquals(HttpStatus.OK, Objects.requireNonNull(revalidated).getStatusCode());
+        Assertions.assertEquals(ITEM_JSON, bodyOf(revalidated));
+        Assertions.assertTrue(refreshedEntry.getFreshUntil().isAfter(staleEntry.getFreshUntil()));
+        Assertions.assertSame(staleEntry.getResponse(), refreshedEntry.getResponse());
+    }
+
+    @Test
+    @DisplayName("Очищать регион кэша после изменяющего запроса")
+    public void shouldPurgeRegionAfterPatch() {
+        expectItem();
+        server.expect(requestTo(SERVER_URL + "/1"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess(ITEM_JSON, MediaType.APPLICATION_JSON));
+        expectItem();
+
+        client.getItem(1L).block();
+        client.updateItem(1L).block();
+
+        Assertions.assertNull(responseCache.get(itemKey(1L)));
+        Assertions.assertEquals(ITEM_JSON, bodyOf(client.getItem(1L).block()));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Отвечать 304 из кэша, если ETag совпадает с If-None-Match клиента")
+    public void shouldReturnNotModifiedFromCacheWhenClientETagMatches() {
+        expectItem();
+
+        client.getItem(1L).block();
+        ResponseEntity<Object> response = client.getItem(1L, ETAG).block();
+
+        server.verify();
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, Objects.requireNonNull(response).getStatusCode());
+        Assertions.assertNull(response.getBody());
+    }
+
+    private void expectItem() {
+        server.expect(requestTo(SERVER_URL + "/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(ITEM_JSON, MediaType.APPLICATION_JSON).headers(eTagHeaders()));
+    }
+
+    private static HttpHeaders eTagHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        return headers;
+    }
+
+    private static ResponseCache.Key itemKey(Long itemId) {
+        return new ResponseCache.Key("items", USER_ID, SERVER_URL + "/" + itemId);
+    }
+
+    private static String bodyOf(ResponseEntity<Object> response) {
+        return new String((byte[]) Objects.requireNonNull(Objects.requireNonNull(response).getBody()),
+                StandardCharsets.UTF_8);
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest, ResponseCache responseCache) {
+            super(rest, null, responseCache, "items", Set.of("items"), null);
+        }
+
+        Mono<ResponseEntity<Object>> getItem(Long itemId) {
+            return getItem(itemId, null);
+        }
+
+        Mono<ResponseEntity<Object>> getItem(Long itemId, String ifNoneMatch) {
+            return get("/" + itemId, USER_ID, null, ifNoneMatch);
+        }
+
+        Mono<ResponseEntity<Object>> updateItem(Long itemId) {
+            return patch("/" + itemId, USER_ID, Map.of("name", "Перфоратор"));
+        }
+    }
+}
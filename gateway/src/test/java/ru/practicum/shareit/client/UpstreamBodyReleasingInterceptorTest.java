@@ -0,0 +1,143 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+
+@DisplayName("Тесты освобождения соединений с сервером")
+class UpstreamBodyReleasingInterceptorTest {
+    private static final String SERVER_URL = "http://localhost:9090/items";
+
+    private final UpstreamBodyReleasingInterceptor interceptor = new UpstreamBodyReleasingInterceptor();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private MockRestServiceServer server;
+    private TestClient client;
+
+    @BeforeEach
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(SERVER_URL));
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new TestClient(rest);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Закрывать ответ сервера, который не был записан клиенту")
+    public void shouldCloseUnwrittenResponseAfterCompletion() throws IOException {
+        ClientHttpResponse upstreamResponse = upstreamResponse();
+        server.expect(requestTo(SERVER_URL + "/1")).andRespond(ignored -> upstreamResponse);
+
+        Mono<ResponseEntity<Object>> response = client.getItem(1L)
+                .doOnNext(ignored -> {
+                    throw new IllegalStateException("Ошибка после получения ответа");
+                });
+
+        Assertions.assertThrows(IllegalStateException.class, response::block);
+        Mockito.verify(upstreamResponse, Mockito.never()).close();
+
+        interceptor.afterCompletion(new ServletWebRequest(request), new DeferredResult<>());
+
+        Mockito.verify(upstreamResponse).close();
+    }
+
+    @Test
+    @DisplayName("Не закрывать повторно уже записанный ответ сервера")
+    public void shouldCloseWrittenResponseOnce() throws IOException {
+        ClientHttpResponse upstreamResponse = upstreamResponse();
+        server.expect(requestTo(SERVER_URL + "/1")).andRespond(ignored -> upstreamResponse);
+
+        ResponseEntity<Object> response = client.getItem(1L).block();
+        ((UpstreamBody) response.getBody()).close();
+        interceptor.afterCompletion(new ServletWebRequest(request), new DeferredResult<>());
+
+        Mockito.verify(upstreamResponse, Mockito.times(1)).close();
+    }
+
+    @Test
+    @DisplayName("Закрывать ответ сервера, полученный после отмены подписки")
+    public void shouldCloseResponseDiscardedAfterCancel() throws Exception {
+        ClientHttpResponse upstreamResponse = upstreamResponse();
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        server.expect(requestTo(SERVER_URL + "/1")).andRespond(ignored -> {
+            requestStarted.countDown();
+            awaitQuietly(cancelled);
+            return upstreamResponse;
+        });
+
+        Disposable subscription = client.getItem(1L)
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+
+        Assertions.assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+        subscription.dispose();
+        cancelled.countDown();
+
+        Mockito.verify(upstreamResponse, Mockito.timeout(5_000)).close();
+    }
+
+    private static ClientHttpResponse upstreamResponse() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ClientHttpResponse response = Mockito.mock(ClientHttpResponse.class);
+        Mockito.when(response.getRawStatusCode()).thenReturn(HttpStatus.OK.value());
+        Mockito.when(response.getHeaders()).thenReturn(headers);
+        Mockito.when(response.getBody())
+                .thenReturn(new ByteArrayInputStream("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest) {
+            super(rest);
+        }
+
+        Mono<ResponseEntity<Object>> getItem(Long itemId) {
+            return get("/" + itemId, 1L);
+        }
+    }
+}
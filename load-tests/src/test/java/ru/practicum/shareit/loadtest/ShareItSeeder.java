@@ -0,0 +1,113 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Создает пользователей, вещи и бронирования через gateway перед началом нагрузки
+public class ShareItSeeder {
+    public static final String[] SEARCH_WORDS = {"дрель", "пила", "лестница", "палатка", "велосипед", "шуруповерт"};
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    public ShareItSeeder(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public List<Map<String, Object>> seed(int userCount, int itemCount, int bookingCount) {
+        List<Long> userIds = new ArrayList<>();
+        List<Map<String, Object>> items = new ArrayList<>();
+
+        for (int i = 0; i < userCount; i++) {
+            userIds.add(post("/users", null, Map.of(
+                    "name", "Нагрузка " + i,
+                    "email", "load-" + runId + "-" + i + "@mail.ru")));
+        }
+
+        for (int i = 0; i < itemCount; i++) {
+            long ownerId = userIds.get(i % userCount);
+            String word = SEARCH_WORDS[i % SEARCH_WORDS.length];
+            long itemId = post("/items", ownerId, Map.of(
+                    "name", word + " " + i,
+                    "description", "Нагрузочный тест, " + word,
+                    "available", true));
+
+            Map<String, Object> item = new HashMap<>();
+            item.put("itemId", itemId);
+            item.put("ownerId", ownerId);
+            item.put("bookerId", userIds.get((i + 1) % userCount));
+            item.put("searchText", word);
+            items.add(item);
+        }
+
+        // Бронирования одной вещи занимают разные двухчасовые интервалы и не пересекаются
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        for (int i = 0; i < bookingCount; i++) {
+            Map<String, Object> item = items.get(i % itemCount);
+            LocalDateTime bookingStart = start.plusHours(2L * (i / itemCount));
+            long bookingId = post("/bookings", (Long) item.get("bookerId"), Map.of(
+                    "itemId", item.get("itemId"),
+                    "start", bookingStart.toString(),
+                    "end", bookingStart.plusHours(1).toString()));
+
+            if (i % 2 == 0) {
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + bookingId + "?approved=true"))
+                        .header(USER_ID_HEADER, String.valueOf(item.get("ownerId")))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody()));
+            }
+        }
+
+        return items;
+    }
+
+    private long post(String path, Long userId, Map<String, Object> body) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+
+            if (userId != null) {
+                request.header(USER_ID_HEADER, String.valueOf(userId));
+            }
+
+            return send(request).get("id").asLong();
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось подготовить данные: " + path, e);
+        }
+    }
+
+    private JsonNode send(HttpRequest.Builder request) {
+        try {
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException("Не удалось подготовить данные: " + response.uri() + " вернул " +
+                        response.statusCode() + " " + response.body());
+            }
+
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось подготовить данные: " + request.build().uri(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Подготовка данных прервана", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.Choice;
+import io.gatling.javaapi.core.FeederBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.constantUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.global;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.listFeeder;
+import static io.gatling.javaapi.core.CoreDsl.rampUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.randomSwitch;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+// Смешанная нагрузка ShareIt. Один и тот же сценарий идет через gateway и напрямую в server:
+// разница задержек по одноименным запросам показывает вклад gateway, остальное приходится на server и БД.
+public class ShareItSimulation extends Simulation {
+    private static final String GATEWAY_URL = System.getProperty("gatewayUrl", "http://localhost:8080");
+    private static final String SERVER_URL = System.getProperty("serverUrl", "http://localhost:9090");
+    private static final int USERS = Integer.getInteger("users", 100);
+    private static final int ITEMS = Integer.getInteger("items", 500);
+    private static final int BOOKINGS = Integer.getInteger("bookings", 1000);
+    private static final double RATE = Double.parseDouble(System.getProperty("rate", "50"));
+    private static final Duration RAMP = Duration.ofSeconds(Long.getLong("ramp", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("duration", 60));
+    private static final boolean SERVER_HOP = Boolean.parseBoolean(System.getProperty("serverHop", "true"));
+
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final String[] OWNER_STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING"};
+
+    // Новые бронирования получают непересекающиеся интервалы после подготовленных данных
+    private final AtomicLong bookingSlot = new AtomicLong();
+    private final LocalDateTime newBookingsStart = LocalDateTime.now().plusYears(1).withNano(0);
+
+    private final FeederBuilder<Object> items = listFeeder(new ShareItSeeder(GATEWAY_URL)
+            .seed(USERS, ITEMS, BOOKINGS)).random();
+
+    {
+        HttpProtocolBuilder protocol = http
+                .acceptHeader("application/json")
+                .contentTypeHeader("application/json")
+                .shareConnections();
+
+        List<PopulationBuilder> populations = new ArrayList<>();
+        populations.add(traffic("gateway", GATEWAY_URL));
+
+        if (SERVER_HOP) {
+            populations.add(traffic("server", SERVER_URL));
+        }
+
+        setUp(populations)
+                .protocols(protocol)
+                .assertions(global().failedRequests().percent().lt(1.0));
+    }
+
+    private PopulationBuilder traffic(String hop, String baseUrl) {
+        ScenarioBuilder scenario = scenario("ShareIt via " + hop)
+                .feed(items)
+                .exec(session -> session.set("ownerState",
+                        OWNER_STATES[ThreadLocalRandom.current().nextInt(OWNER_STATES.length)]))
+                .exec(randomSwitch().on(
+                        new Choice.WithWeight(35.0, searchItems(hop, baseUrl)),
+                        new Choice.WithWeight(30.0, getItem(hop, baseUrl)),
+                        new Choice.WithWeight(25.0, getBookings(hop, baseUrl)),
+                        new Choice.WithWeight(10.0, createAndApproveBooking(hop, baseUrl))
+                ));
+
+        return scenario.injectOpen(
+                rampUsersPerSec(1).to(RATE).during(RAMP),
+                constantUsersPerSec(RATE).during(DURATION));
+    }
+
+    private ChainBuilder searchItems(String hop, String baseUrl) {
+        return exec(http(hop + " GET /items/search")
+                .get(baseUrl + "/items/search")
+                .queryParam("text", "#{searchText}")
+                .queryParam("from", 0)
+                .queryParam("size", 20)
+                .header(USER_ID_HEADER, "#{bookerId}")
+                .check(status().is(200)));
+    }
+
+    private ChainBuilder getItem(String hop, String baseUrl) {
+        return exec(http(hop + " GET /items/{id}")
+                .get(baseUrl + "/items/#{itemId}")
+                .header(USER_ID_HEADER, "#{ownerId}")
+                .check(status().is(200)));
+    }
+
+    private ChainBuilder getBookings(String hop, String baseUrl) {
+        return exec(http(hop + " GET /bookings")
+                .get(baseUrl + "/bookings")
+                .queryParam("state", "ALL")
+                .queryParam("from", 0)
+                .queryParam("size", 20)
+                .header(USER_ID_HEADER, "#{bookerId}")
+                .check(status().is(200)))
+                .exec(http(hop + " GET /bookings/owner")
+                        .get(baseUrl + "/bookings/owner")
+                        .queryParam("state", "#{ownerState}")
+                        .queryParam("from", 0)
+                        .queryParam("size", 20)
+                        .header(USER_ID_HEADER, "#{ownerId}")
+                        .check(status().is(200)));
+    }
+
+    private ChainBuilder createAndApproveBooking(String hop, String baseUrl) {
+        return exec(http(hop + " POST /bookings")
+                .post(baseUrl + "/bookings")
+                .header(USER_ID_HEADER, "#{bookerId}")
+                .body(StringBody(session -> newBookingJson(session.getLong("itemId"))))
+                .check(status().is(200))
+                .check(jsonPath("$.id").saveAs("bookingId")))
+                .exec(http(hop + " PATCH /bookings/{id}")
+                        .patch(baseUrl + "/bookings/#{bookingId}")
+                        .queryParam("approved", true)
+                        .header(USER_ID_HEADER, "#{ownerId}")
+                        .check(status().is(200)));
+    }
+
+    private String newBookingJson(long itemId) {
+        LocalDateTime start = newBookingsStart.plusHours(2 * bookingSlot.getAndIncrement());
+
+        return String.format("{\"itemId\": %d, \"start\": \"%s\", \"end\": \"%s\"}",
+                itemId, start, start.plusHours(1));
+    }
+}
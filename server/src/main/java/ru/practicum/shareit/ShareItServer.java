@@ -2,12 +2,29 @@ package ru.practicum.shareit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class ShareItServer {
 
 	public static void main(String[] args) {
 		SpringApplication.run(ShareItServer.class, args);
 	}
 
+	// ETag по содержимому ответа только для кэшируемых в шлюзе маршрутов без собственных версий:
+	// фильтр буферизует и хэширует весь ответ, а вещи и бронирования отдают ETag по версиям строк
+	@Bean
+	public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+		FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+				new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+		registration.addUrlPatterns("/users/*", "/requests/*");
+		return registration;
+	}
+
 }
@@ -4,6 +4,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,7 +20,9 @@ import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDetailsInfoDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.handlers.ETags;
 import ru.practicum.shareit.handlers.HeaderConstants;
 
 import java.util.List;
@@ -30,51 +35,80 @@ public class BookingController {
     private final BookingService bookingService;
 
     @GetMapping
-    public List<BookingDetailsInfoDto> getBookingsByBookerId(
+    public ResponseEntity<List<BookingDetailsInfoDto>> getBookingsByBookerId(
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long bookerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(value = "from", defaultValue = "0") Integer offset,
-            @RequestParam(value = "size", defaultValue = "20") Integer limit
+            @RequestParam(value = "size", defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String after
     ) {
-        log.debug("+ getBookingsByBookerId: bookerId={}, state={}, ", bookerId, state);
+        log.debug("+ getBookingsByBookerId: bookerId={}, state={}, after={}", bookerId, state, after);
 
-        Pageable pageable = PageRequest.of(offset / limit, limit);
+        List<Booking> bookings;
 
-        List<BookingDetailsInfoDto> bookings = BookingMapper
-                .toBookingDetailsDto(bookingService.getBookingsByBookerId(bookerId, state, pageable));
+        if (after == null) {
+            Pageable pageable = PageRequest.of(offset / limit, limit);
+            bookings = bookingService.getBookingsByBookerId(bookerId, state, pageable);
+        } else {
+            bookings = bookingService.getBookingsByBookerId(bookerId, state, BookingCursor.decode(after), limit);
+        }
 
-        log.debug("- getBookingsByBookerId: {}", bookings);
+        ResponseEntity<List<BookingDetailsInfoDto>> response = toPageResponse(bookings, limit);
 
-        return bookings;
+        log.debug("- getBookingsByBookerId: {}", response.getBody());
+
+        return response;
     }
 
     @GetMapping("/owner")
-    public List<BookingDetailsInfoDto> getBookingsByItemOwnerId(
+    public ResponseEntity<List<BookingDetailsInfoDto>> getBookingsByItemOwnerId(
             @RequestHeader(HeaderConstants.X_SHARER_USER_ID) Long itemOwnerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(value = "from", defaultValue = "0") Integer offset,
-            @RequestParam(value = "size", defaultValue = "20") Integer limit
+            @RequestParam(value = "size", defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String after
     ) {
-        log.debug("+ getBookingsByItemOwnerId: itemOwnerId={}, state={}, ", itemOwnerId, state);
+        log.debug("+ getBookingsByItemOwnerId: itemOwnerId={}, state={}, after={}", itemOwnerId, state, after);
+
+        List<Booking> bookings;
 
-        Pageable pageable = PageRequest.of(offset / limit, limit);
+        if (after == null) {
+            Pageable pageable = PageRequest.of(offset / limit, limit);
+            bookings = bookingService.getBookingsByItemOwnerId(itemOwnerId, state, pageable);
+        } else {
+            bookings = bookingService.getBookingsByItemOwnerId(itemOwnerId, state, BookingCursor.decode(after), limit);
+        }
 
-        List<BookingDetailsInfoDto> bookings = BookingMapper
-                .toBookingDetailsDto(bookingService.getBookingsByItemOwnerId(itemOwnerId, state, pageable));
+        ResponseEntity<List<BookingDetailsInfoDto>> response = toPageResponse(bookings, limit);
 
-        log.debug("- getBookingsByItemOwnerId: {}", bookings);
+        log.debug("- getBookingsByItemOwnerId: {}", response.getBody());
 
-        return bookings;
+        return response;
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDetailsInfoDto getBookingById(@PathVariable Long bookingId,
-                                                @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
-        log.debug("+ getBookingById: bookingId={}", bookingId);
-        BookingDetailsInfoDto booking = BookingMapper
-                .toBookingDetailsDto(bookingService.getBookingById(bookingId, userId));
-        log.debug("- getBookingById: {}", booking);
-        return booking;
+    public ResponseEntity<BookingDetailsInfoDto> getBookingById(
+            @PathVariable Long bookingId,
+            @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("+ getBookingById: bookingId={}, ifNoneMatch={}", bookingId, ifNoneMatch);
+
+        if (ifNoneMatch != null) {
+            String etag = bookingService.getBookingETag(bookingId, userId);
+
+            if (ETags.matches(ifNoneMatch, etag)) {
+                log.debug("- getBookingById: не изменено, etag={}", etag);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        Booking booking = bookingService.getBookingById(bookingId, userId);
+        BookingDetailsInfoDto bookingDto = BookingMapper.toBookingDetailsDto(booking);
+
+        log.debug("- getBookingById: {}", bookingDto);
+
+        return ResponseEntity.ok().eTag(BookingMapper.toETag(booking)).body(bookingDto);
     }
 
     @PostMapping
@@ -90,17 +124,44 @@ public class BookingController {
         return createdBookingDto;
     }
 
+    @PostMapping("/batch")
+    public List<BookingDetailsInfoDto> createBookings(@RequestBody List<BookingCreationDto> bookings,
+                                                      @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
+        log.debug("+ createBookings: bookings={}, userId={}", bookings, userId);
+
+        List<Booking> createdBookings = bookingService.createBookings(BookingMapper.toBooking(bookings), userId);
+        List<BookingDetailsInfoDto> createdBookingDtos = BookingMapper.toBookingDetailsDto(createdBookings);
+
+        log.debug("- createBookings: {}", createdBookingDtos);
+
+        return createdBookingDtos;
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDetailsInfoDto approveOrRejectBooking(@PathVariable Long bookingId,
                                                         @RequestParam(name = "approved") boolean isApproved,
-                                                        @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
-        log.debug("+ approveOrRejectBooking: bookingId={}, isApproved={}, userId={}", bookingId, isApproved, userId);
+                                                        @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId,
+                                                        @RequestHeader(value = HeaderConstants.IDEMPOTENCY_KEY,
+                                                                required = false) String idempotencyKey) {
+        log.debug("+ approveOrRejectBooking: bookingId={}, isApproved={}, userId={}, idempotencyKey={}", bookingId,
+                isApproved, userId, idempotencyKey);
 
-        Booking updatedBooking = bookingService.approveOrRejectBooking(bookingId, isApproved, userId);
+        Booking updatedBooking = bookingService.approveOrRejectBooking(bookingId, isApproved, userId, idempotencyKey);
         BookingDetailsInfoDto updatedBookingDto = BookingMapper.toBookingDetailsDto(updatedBooking);
 
         log.debug("- approveOrRejectBooking: {}", updatedBookingDto);
 
         return updatedBookingDto;
     }
-}
+
+    private static ResponseEntity<List<BookingDetailsInfoDto>> toPageResponse(List<Booking> bookings, int limit) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (!bookings.isEmpty() && bookings.size() == limit) {
+            Booking lastBooking = bookings.get(bookings.size() - 1);
+            response.header(HeaderConstants.X_NEXT_CURSOR, BookingCursor.of(lastBooking).encode());
+        }
+
+        return response.body(BookingMapper.toBookingDetailsDto(bookings));
+    }
+}
\ No newline at end of file
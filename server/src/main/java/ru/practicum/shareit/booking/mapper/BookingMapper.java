@@ -5,6 +5,7 @@ import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDatesDto;
 import ru.practicum.shareit.booking.dto.BookingDetailsInfoDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.handlers.ETags;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
@@ -27,6 +28,11 @@ public class BookingMapper {
                 .build();
     }
 
+    public String toETag(Booking booking) {
+        return ETags.of(booking.getId(), booking.getVersion(), booking.getItem().getVersion(),
+                booking.getBooker().getVersion());
+    }
+
     public List<BookingDetailsInfoDto> toBookingDetailsDto(List<Booking> bookings) {
         return bookings.stream()
                 .map(BookingMapper::toBookingDetailsDto)
@@ -52,4 +58,10 @@ public class BookingMapper {
                 .item(item)
                 .build();
     }
+
+    public List<Booking> toBooking(List<BookingCreationDto> bookingCreationDtos) {
+        return bookingCreationDtos.stream()
+                .map(BookingMapper::toBooking)
+                .collect(toList());
+    }
 }
\ No newline at end of file
@@ -1,11 +1,18 @@
 package ru.practicum.shareit.booking.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
     WAITING("ожидает одобрения"),
     APPROVED("подтверждено владельцем"),
     REJECTED("отклонено владельцем"),
     CANCELED("отменено создателем");
 
+    // Бронирования в этих статусах занимают вещь на свой период
+    public static final Set<BookingStatus> RESERVING = Collections.unmodifiableSet(EnumSet.of(WAITING, APPROVED));
+
     private final String name;
 
     BookingStatus(String name) {
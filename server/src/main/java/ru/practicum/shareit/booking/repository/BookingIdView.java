@@ -0,0 +1,5 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingIdView {
+    Long getId();
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.BookingIdempotencyKey;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface BookingIdempotencyKeyRepository extends JpaRepository<BookingIdempotencyKey, Long> {
+    Optional<BookingIdempotencyKey> findByUserIdAndKey(Long userId, String key);
+
+    @Modifying
+    @Query("DELETE FROM BookingIdempotencyKey k WHERE k.created < ?1")
+    int deleteCreatedBefore(LocalDateTime cutoff);
+}
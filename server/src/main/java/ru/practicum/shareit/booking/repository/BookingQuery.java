@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class BookingQuery {
+    private final Long bookerId;
+    private final Long itemOwnerId;
+    private final Long itemId;
+    private final BookingStatus status;
+    private final LocalDateTime startBefore;
+    private final LocalDateTime startAfter;
+    private final LocalDateTime endBefore;
+    private final LocalDateTime endAfter;
+    private final BookingCursor after;
+
+    @Builder.Default
+    private final int offset = 0;
+
+    @Builder.Default
+    private final int limit = 20;
+}
@@ -1,39 +1,69 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long bookerId, LocalDateTime start,
-                                                                             LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findAllByItemInAndStatusOrderByStartDesc(List<Item> items, BookingStatus status);
-
-    List<Booking> findAllByItem_OwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long ownerId, LocalDateTime start,
-                                                                                 LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long bookingId);
+
+    @Query("SELECT b.id AS id, b.booker.id AS bookerId, i.owner.id AS itemOwnerId, " +
+            "       b.version AS version, i.version AS itemVersion, u.version AS bookerVersion " +
+            "FROM Booking b JOIN b.item i JOIN b.booker u " +
+            "WHERE b.id = ?1")
+    Optional<BookingVersionView> findVersionById(Long bookingId);
+
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Booking b " +
+            "WHERE b.item.id = ?1 AND b.id <> ?2 AND b.status IN ?5 " +
+            "  AND b.start < ?4 AND (b.end IS NULL OR b.end > ?3)")
+    boolean existsOverlapping(Long itemId, long excludedBookingId, LocalDateTime start, LocalDateTime end,
+                              Collection<BookingStatus> statuses);
+
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id = ?1 AND b.status IN ?3 AND (b.end IS NULL OR b.end > ?2)")
+    List<BookingIntervalView> findIntervalsByItemId(Long itemId, LocalDateTime endAfter,
+                                                    Collection<BookingStatus> statuses);
+
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id IN ?1 AND b.status IN ?3 AND (b.end IS NULL OR b.end > ?2)")
+    List<BookingIntervalView> findIntervalsByItemIdIn(Collection<Long> itemIds, LocalDateTime endAfter,
+                                                      Collection<BookingStatus> statuses);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.REJECTED, " +
+            "    b.version = b.version + 1 " +
+            "WHERE b.id = ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "  AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = ?2)")
+    int rejectIfWaiting(Long bookingId, Long itemOwnerId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED, " +
+            "    b.version = b.version + 1 " +
+            "WHERE b.id = ?1 AND b.status = ru.practicum.shareit.booking.model.BookingStatus.WAITING " +
+            "  AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = ?2) " +
+            "  AND NOT EXISTS (SELECT o.id FROM Booking o " +
+            "                  WHERE o.item.id = b.item.id AND o.id <> b.id " +
+            "                    AND o.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "                    AND (b.end IS NULL OR o.start < b.end) AND (o.end IS NULL OR o.end > b.start))")
+    int approveIfWaiting(Long bookingId, Long itemOwnerId);
+
+    Optional<BookingIdView> findFirstIdByItemIdAndStartBeforeAndStatusNotOrderByStartDesc(Long itemId,
+                                                                                       LocalDateTime start,
+                                                                                       BookingStatus status);
+
+    Optional<BookingIdView> findFirstIdByItemIdAndStartAfterAndStatusNotOrderByStart(Long itemId,
+                                                                                 LocalDateTime start,
+                                                                                 BookingStatus status);
 
     Optional<Booking> findFirstBookingByItemIdAndStartBeforeAndStatusNotOrderByStartDesc(Long itemId,
                                                                                          LocalDateTime start,
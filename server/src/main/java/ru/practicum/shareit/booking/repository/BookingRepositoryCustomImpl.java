@@ -0,0 +1,45 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.shareit.booking.model.Booking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final Sort SORT = Sort.by(Sort.Direction.DESC, "start", "id");
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Booking> findAll(BookingQuery bookingQuery) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = builder.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+
+        // Вещь и автор бронирования нужны для ответа, который формируется уже после завершения транзакции
+        booking.fetch("item");
+        booking.fetch("booker");
+
+        Predicate predicate = BookingSpecifications.of(bookingQuery).toPredicate(booking, query, builder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(booking).orderBy(QueryUtils.toOrders(SORT, booking, builder));
+
+        // Без Page, чтобы не выполнять лишний запрос count
+        return entityManager.createQuery(query)
+                .setFirstResult(bookingQuery.getOffset())
+                .setMaxResults(bookingQuery.getLimit())
+                .getResultList();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@UtilityClass
+public class BookingSpecifications {
+    public Specification<Booking> of(BookingQuery query) {
+        return Specification.where(byBookerId(query.getBookerId()))
+                .and(byItemOwnerId(query.getItemOwnerId()))
+                .and(byItemId(query.getItemId()))
+                .and(byStatus(query.getStatus()))
+                .and(startBefore(query.getStartBefore()))
+                .and(startAfter(query.getStartAfter()))
+                .and(endBefore(query.getEndBefore()))
+                .and(endAfter(query.getEndAfter()))
+                .and(after(query.getAfter()));
+    }
+
+    public Specification<Booking> byBookerId(Long bookerId) {
+        if (bookerId == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.equal(booking.get("booker").get("id"), bookerId);
+    }
+
+    public Specification<Booking> byItemOwnerId(Long itemOwnerId) {
+        if (itemOwnerId == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.equal(booking.get("item").get("owner").get("id"), itemOwnerId);
+    }
+
+    public Specification<Booking> byItemId(Long itemId) {
+        if (itemId == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.equal(booking.get("item").get("id"), itemId);
+    }
+
+    public Specification<Booking> byStatus(BookingStatus status) {
+        if (status == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.equal(booking.get("status"), status);
+    }
+
+    public Specification<Booking> startBefore(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.lessThan(booking.get("start"), dateTime);
+    }
+
+    public Specification<Booking> startAfter(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.greaterThan(booking.get("start"), dateTime);
+    }
+
+    public Specification<Booking> endBefore(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.lessThan(booking.get("end"), dateTime);
+    }
+
+    public Specification<Booking> endAfter(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.greaterThan(booking.get("end"), dateTime);
+    }
+
+    // start <= ? AND (start < ? OR id < ?) даёт диапазон по индексу на (…, start_date DESC)
+    public Specification<Booking> after(BookingCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        return (booking, query, builder) -> builder.and(
+                builder.lessThanOrEqualTo(booking.get("start"), cursor.getStart()),
+                builder.or(
+                        builder.lessThan(booking.get("start"), cursor.getStart()),
+                        builder.lessThan(booking.get("id"), cursor.getId())));
+    }
+}
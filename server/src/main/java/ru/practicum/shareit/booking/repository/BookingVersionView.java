@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.repository;
+
+public interface BookingVersionView {
+    Long getId();
+
+    Long getBookerId();
+
+    Long getItemOwnerId();
+
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
 
 import java.util.List;
 
@@ -10,9 +11,17 @@ public interface BookingService {
 
     List<Booking> getBookingsByItemOwnerId(long itemOwnerId, String statusFilter, Pageable pageable);
 
+    List<Booking> getBookingsByBookerId(long bookerId, String statusFilter, BookingCursor after, int limit);
+
+    List<Booking> getBookingsByItemOwnerId(long itemOwnerId, String statusFilter, BookingCursor after, int limit);
+
     Booking getBookingById(Long bookingId, Long userId);
 
+    String getBookingETag(Long bookingId, Long userId);
+
     Booking createBooking(Booking booking, Long bookerId);
 
-    Booking approveOrRejectBooking(Long bookingId, boolean isApproved, Long userId);
+    List<Booking> createBookings(List<Booking> bookings, Long bookerId);
+
+    Booking approveOrRejectBooking(Long bookingId, boolean isApproved, Long userId, String idempotencyKey);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingIdempotencyKeyRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Ключ защищает только от повторов запроса, поэтому хранится ограниченное время
+@Component
+@Slf4j
+public class BookingIdempotencyKeyPurger {
+    private final BookingIdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration retention;
+
+    public BookingIdempotencyKeyPurger(BookingIdempotencyKeyRepository idempotencyKeyRepository,
+                                       @Value("${shareit.booking.idempotency-key.retention}") Duration retention) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.retention = retention;
+    }
+
+    @Scheduled(initialDelayString = "${shareit.booking.idempotency-key.purge-interval}",
+            fixedDelayString = "${shareit.booking.idempotency-key.purge-interval}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        int deletedCount = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+
+        log.debug("Удалено устаревших ключей идемпотентности: {}", deletedCount);
+    }
+}
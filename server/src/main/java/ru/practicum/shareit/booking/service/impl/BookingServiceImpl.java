@@ -1,14 +1,27 @@
 package ru.practicum.shareit.booking.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingIdempotencyKey;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.model.BookingStatusFilter;
+import ru.practicum.shareit.booking.repository.BookingIdempotencyKeyRepository;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingVersionView;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.handlers.ETags;
+import ru.practicum.shareit.item.availability.AvailabilityCalendar;
+import ru.practicum.shareit.item.availability.BookingReleasedEvent;
+import ru.practicum.shareit.item.availability.BookingReservedEvent;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -16,102 +29,66 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIdempotencyKeyRepository idempotencyKeyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<Booking> getBookingsByBookerId(long bookerId, String statusFilter, Pageable pageable) {
-        List<Booking> bookings;
-        LocalDateTime currentDateTime = LocalDateTime.now();
+        checkUserExists(bookerId);
 
-        if (!userRepository.existsById(bookerId)) {
-            throw new NotFoundException("Пользователь #" + bookerId + " не найден.");
-        }
+        return findBookings(BookingQuery.builder()
+                .bookerId(bookerId)
+                .offset((int) pageable.getOffset())
+                .limit(pageable.getPageSize()), statusFilter);
+    }
 
-        try {
-            BookingStatusFilter bookingStatusFilter = BookingStatusFilter.valueOf(statusFilter);
-
-            switch (bookingStatusFilter) {
-                case ALL:
-                    bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(bookerId, pageable);
-                    break;
-                case CURRENT:
-                    bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(bookerId,
-                            currentDateTime,
-                            currentDateTime, pageable);
-                    break;
-                case PAST:
-                    bookings = bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(bookerId, currentDateTime, pageable);
-                    break;
-                case FUTURE:
-                    bookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(bookerId, currentDateTime, pageable);
-                    break;
-                case WAITING:
-                    bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.WAITING, pageable);
-                    break;
-                case REJECTED:
-                    bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(bookerId, BookingStatus.REJECTED, pageable);
-                    break;
-                default:
-                    throw new ValidationException("Неверный статус бронирования: " + bookingStatusFilter);
-            }
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
-        }
+    @Override
+    public List<Booking> getBookingsByItemOwnerId(long itemOwnerId, String statusFilter, Pageable pageable) {
+        checkUserExists(itemOwnerId);
 
-        return bookings;
+        return findBookings(BookingQuery.builder()
+                .itemOwnerId(itemOwnerId)
+                .offset((int) pageable.getOffset())
+                .limit(pageable.getPageSize()), statusFilter);
     }
 
     @Override
-    public List<Booking> getBookingsByItemOwnerId(long itemOwnerId, String statusFilter, Pageable pageable) {
-        List<Booking> bookings;
-        LocalDateTime currentDateTime = LocalDateTime.now();
+    public List<Booking> getBookingsByBookerId(long bookerId, String statusFilter, BookingCursor after, int limit) {
+        checkUserExists(bookerId);
 
-        if (!userRepository.existsById(itemOwnerId)) {
-            throw new NotFoundException("Пользователь #" + itemOwnerId + " не найден.");
-        }
+        return findBookings(BookingQuery.builder()
+                .bookerId(bookerId)
+                .after(after)
+                .limit(limit), statusFilter);
+    }
 
-        try {
-            BookingStatusFilter bookingStatusFilter = BookingStatusFilter.valueOf(statusFilter);
-            switch (bookingStatusFilter) {
-                case ALL:
-                    bookings = bookingRepository.findAllByItem_OwnerIdOrderByStartDesc(itemOwnerId, pageable);
-                    break;
-                case CURRENT:
-                    bookings = bookingRepository
-                            .findAllByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(itemOwnerId,
-                                    currentDateTime, currentDateTime, pageable);
-                    break;
-                case PAST:
-                    bookings = bookingRepository.findAllByItem_OwnerIdAndEndBeforeOrderByStartDesc(itemOwnerId,
-                            currentDateTime, pageable);
-                    break;
-                case FUTURE:
-                    bookings = bookingRepository.findAllByItem_OwnerIdAndStartAfterOrderByStartDesc(itemOwnerId,
-                            currentDateTime, pageable);
-                    break;
-                case WAITING:
-                    bookings = bookingRepository.findAllByItem_OwnerIdAndStatusOrderByStartDesc(itemOwnerId,
-                            BookingStatus.WAITING, pageable);
-                    break;
-                case REJECTED:
-                    bookings = bookingRepository.findAllByItem_OwnerIdAndStatusOrderByStartDesc(itemOwnerId,
-                            BookingStatus.REJECTED, pageable);
-                    break;
-                default:
-                    throw new ValidationException("Неверный статус бронирования: " + bookingStatusFilter);
-            }
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
-        }
+    @Override
+    public List<Booking> getBookingsByItemOwnerId(long itemOwnerId, String statusFilter, BookingCursor after,
+                                                  int limit) {
+        checkUserExists(itemOwnerId);
 
-        return bookings;
+        return findBookings(BookingQuery.builder()
+                .itemOwnerId(itemOwnerId)
+                .after(after)
+                .limit(limit), statusFilter);
     }
 
     @Override
@@ -130,12 +107,28 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    public String getBookingETag(Long bookingId, Long userId) {
+        BookingVersionView bookingVersion = bookingRepository.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронирование #" + bookingId + " не найдено."));
+
+        if (!userId.equals(bookingVersion.getBookerId()) && !userId.equals(bookingVersion.getItemOwnerId())) {
+            throw new NotFoundException("Недостаточно прав доступа для " +
+                    "получения данных бронирования #" + bookingId + ".");
+        }
+
+        return ETags.of(bookingVersion.getId(), bookingVersion.getVersion(), bookingVersion.getItemVersion(),
+                bookingVersion.getBookerVersion());
+    }
+
+    @Override
+    @Transactional
     public Booking createBooking(Booking booking, Long bookerId) {
         User booker = userRepository.findById(bookerId)
                 .orElseThrow(() -> new NotFoundException("Пользователь #" + bookerId + " не найден."));
 
+        // Блокировка строки вещи упорядочивает бронирования одной вещи, не мешая бронированиям других вещей
         Long itemId = booking.getItem().getId();
-        Item item = itemRepository.findById(itemId)
+        Item item = itemRepository.findByIdForUpdate(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещь #" + itemId + " не найдена."));
 
         if (!item.getAvailable()) {
@@ -151,27 +144,221 @@ public class BookingServiceImpl implements BookingService {
                     "так как владелец вещи и пользователь совпадают.");
         }
 
-        return bookingRepository.save(booking);
+        if (bookingRepository.existsOverlapping(itemId, 0L, booking.getStart(), booking.getEnd(),
+                BookingStatus.RESERVING)) {
+            throw new ConflictException("Вещь #" + itemId + " уже забронирована на пересекающийся период.");
+        }
+
+        Booking createdBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingReservedEvent(itemId, booking.getStart(), booking.getEnd()));
+
+        return createdBooking;
+    }
+
+    @Override
+    @Transactional
+    public List<Booking> createBookings(List<Booking> bookings, Long bookerId) {
+        User booker = userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException("Пользователь #" + bookerId + " не найден."));
+
+        if (bookings.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        if (items.size() < itemIds.size()) {
+            itemIds.removeAll(items.keySet());
+            throw new NotFoundException("Вещи " + itemIds + " не найдены.");
+        }
+
+        // Уже занятые интервалы всех вещей пакета загружаются одним запросом, пересечения проверяются в памяти,
+        // включая пересечения бронирований внутри пакета
+        LocalDateTime earliestStart = bookings.stream()
+                .map(Booking::getStart)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        Map<Long, AvailabilityCalendar> calendars = new HashMap<>();
+
+        for (Long itemId : itemIds) {
+            calendars.put(itemId, new AvailabilityCalendar());
+        }
+
+        bookingRepository.findIntervalsByItemIdIn(itemIds, earliestStart, BookingStatus.RESERVING)
+                .forEach(interval -> calendars.get(interval.getItemId())
+                        .reserve(interval.getStart(), interval.getEnd()));
+
+        for (Booking booking : bookings) {
+            Item item = items.get(booking.getItem().getId());
+            Long itemId = item.getId();
+
+            if (!item.getAvailable()) {
+                throw new ValidationException("Вещь #" + itemId + " недоступна для бронирования.");
+            }
+
+            if (item.getOwner().getId().equals(bookerId)) {
+                throw new NotFoundException("Невозможно выполнить бронирование вещи #" + itemId + ", " +
+                        "так как владелец вещи и пользователь совпадают.");
+            }
+
+            AvailabilityCalendar calendar = calendars.get(itemId);
+
+            if (!calendar.isFree(booking.getStart(), booking.getEnd())) {
+                throw new ConflictException("Вещь #" + itemId + " уже забронирована на пересекающийся период.");
+            }
+
+            calendar.reserve(booking.getStart(), booking.getEnd());
+
+            booking.setId(null);
+            booking.setBooker(booker);
+            booking.setItem(item);
+            booking.setStatus(BookingStatus.WAITING);
+        }
+
+        // Вставки отправляются пакетами JDBC при сбросе контекста
+        List<Booking> createdBookings = bookingRepository.saveAll(bookings);
+
+        for (Booking booking : createdBookings) {
+            eventPublisher.publishEvent(new BookingReservedEvent(booking.getItem().getId(), booking.getStart(),
+                    booking.getEnd()));
+        }
+
+        return createdBookings;
     }
 
     @Override
-    public Booking approveOrRejectBooking(Long bookingId, boolean isApproved, Long userId) {
+    @Transactional
+    public Booking approveOrRejectBooking(Long bookingId, boolean isApproved, Long userId,
+                                          String idempotencyKey) {
+        BookingStatus newStatus = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        if (idempotencyKey != null) {
+            Optional<Booking> processedBooking = findProcessedBooking(bookingId, newStatus, userId, idempotencyKey);
+
+            if (processedBooking.isPresent()) {
+                return processedBooking.get();
+            }
+        }
+
+        // Статус меняется одним условным UPDATE без загрузки бронирования и блокировок
+        int updatedCount = isApproved
+                ? bookingRepository.approveIfWaiting(bookingId, userId)
+                : bookingRepository.rejectIfWaiting(bookingId, userId);
+
+        if (updatedCount == 0) {
+            // Параллельный повтор с тем же ключом мог выполнить изменение раньше
+            if (idempotencyKey != null) {
+                Optional<Booking> processedBooking = findProcessedBooking(bookingId, newStatus, userId,
+                        idempotencyKey);
+
+                if (processedBooking.isPresent()) {
+                    return processedBooking.get();
+                }
+            }
+
+            throw statusChangeFailure(bookingId, userId);
+        }
+
+        if (idempotencyKey != null) {
+            idempotencyKeyRepository.save(BookingIdempotencyKey.builder()
+                    .key(idempotencyKey)
+                    .userId(userId)
+                    .bookingId(bookingId)
+                    .status(newStatus)
+                    .created(LocalDateTime.now())
+                    .build());
+        }
+
+        Booking updatedBooking = getBookingById(bookingId, userId);
+        Long itemId = updatedBooking.getItem().getId();
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+
+        if (!isApproved) {
+            eventPublisher.publishEvent(new BookingReleasedEvent(itemId));
+        }
+
+        return updatedBooking;
+    }
+
+    private Optional<Booking> findProcessedBooking(Long bookingId, BookingStatus newStatus, Long userId,
+                                                   String idempotencyKey) {
+        Optional<BookingIdempotencyKey> processedKey = idempotencyKeyRepository.findByUserIdAndKey(userId,
+                idempotencyKey);
+
+        if (processedKey.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (!processedKey.get().getBookingId().equals(bookingId) || processedKey.get().getStatus() != newStatus) {
+            throw new ConflictException("Ключ идемпотентности " + idempotencyKey + " уже использован " +
+                    "для другого запроса.");
+        }
+
+        return Optional.of(getBookingById(bookingId, userId));
+    }
+
+    private RuntimeException statusChangeFailure(Long bookingId, Long userId) {
         Booking booking = getBookingById(bookingId, userId);
         Long itemOwnerId = booking.getItem().getOwner().getId();
         BookingStatus currentStatus = booking.getStatus();
 
         if (!itemOwnerId.equals(userId)) {
-            throw new NotFoundException("Недостаточно прав доступа для " +
+            return new NotFoundException("Недостаточно прав доступа для " +
                     "изменения статуса бронирования #" + bookingId + ".");
         }
 
         if (!currentStatus.equals(BookingStatus.WAITING)) {
-            throw new ValidationException("Подтверждение или отклонение запроса на бронирование невозможно, " +
+            return new ValidationException("Подтверждение или отклонение запроса на бронирование невозможно, " +
                     "так как бронирование #" + bookingId + " " + currentStatus.getName());
         }
 
-        booking.setStatus(isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        return new ConflictException("Подтверждение бронирования #" + bookingId + " невозможно, " +
+                "так как вещь #" + booking.getItem().getId() + " уже забронирована на пересекающийся период.");
+    }
+
+    private void checkUserExists(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь #" + userId + " не найден.");
+        }
+    }
+
+    private List<Booking> findBookings(BookingQuery.BookingQueryBuilder query, String statusFilter) {
+        BookingStatusFilter bookingStatusFilter;
+        LocalDateTime currentDateTime = LocalDateTime.now();
+
+        try {
+            bookingStatusFilter = BookingStatusFilter.valueOf(statusFilter);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+        }
+
+        switch (bookingStatusFilter) {
+            case ALL:
+                break;
+            case CURRENT:
+                query.startBefore(currentDateTime).endAfter(currentDateTime);
+                break;
+            case PAST:
+                query.endBefore(currentDateTime);
+                break;
+            case FUTURE:
+                query.startAfter(currentDateTime);
+                break;
+            case WAITING:
+                query.status(BookingStatus.WAITING);
+                break;
+            case REJECTED:
+                query.status(BookingStatus.REJECTED);
+                break;
+            default:
+                // Неизвестные значения уже отклонены valueOf, сюда попадет только новый фильтр без обработки
+                throw new IllegalStateException("Фильтр бронирований не обработан: " + bookingStatusFilter);
+        }
 
-        return bookingRepository.save(booking);
+        return bookingRepository.findAll(query.build());
     }
-}
\ No newline at end of file
+}
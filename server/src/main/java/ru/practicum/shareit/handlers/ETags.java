@@ -0,0 +1,29 @@
+package ru.practicum.shareit.handlers;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@UtilityClass
+public class ETags {
+    public String of(Object... parts) {
+        return Arrays.stream(parts)
+                .map(part -> Objects.nonNull(part) ? part.toString() : "0")
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    public boolean matches(@Nullable String ifNoneMatch, String etag) {
+        if (Objects.isNull(ifNoneMatch)) {
+            return false;
+        }
+
+        // Слабые ETag сравниваются по значению, как того требует If-None-Match
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+    }
+}
@@ -4,6 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,17 +17,20 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.handlers.ETags;
 import ru.practicum.shareit.handlers.HeaderConstants;
 import ru.practicum.shareit.item.dto.CommentCreationDto;
 import ru.practicum.shareit.item.dto.CommentDetailsInfoDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
 import ru.practicum.shareit.item.dto.ItemDetailsInfoDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -51,12 +58,28 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDetailsInfoDto getItemById(@PathVariable Long itemId,
-                                          @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
-        log.debug("+ getItemById: itemId={}", itemId);
-        ItemDetailsInfoDto item = ItemMapper.toItemDetailsInfoDto(itemService.getItemById(itemId, userId));
-        log.debug("- getItemById: {}", item);
-        return item;
+    public ResponseEntity<ItemDetailsInfoDto> getItemById(
+            @PathVariable Long itemId,
+            @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        log.debug("+ getItemById: itemId={}, ifNoneMatch={}", itemId, ifNoneMatch);
+
+        if (ifNoneMatch != null) {
+            String etag = itemService.getItemETag(itemId, userId);
+
+            if (ETags.matches(ifNoneMatch, etag)) {
+                log.debug("- getItemById: не изменена, etag={}", etag);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        Item item = itemService.getItemById(itemId, userId);
+        ItemDetailsInfoDto itemDto = ItemMapper.toItemDetailsInfoDto(item);
+
+        log.debug("- getItemById: {}", itemDto);
+
+        return ResponseEntity.ok().eTag(ItemMapper.toETag(item, userId)).body(itemDto);
     }
 
     @GetMapping("/search")
@@ -76,6 +99,20 @@ public class ItemController {
         return items;
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<TimeSlotDto> getItemAvailability(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.debug("+ getItemAvailability: itemId={}, from={}, to={}", itemId, from, to);
+
+        List<TimeSlotDto> freeSlots = itemService.getItemAvailability(itemId, from, to);
+
+        log.debug("- getItemAvailability: {}", freeSlots);
+        return freeSlots;
+    }
+
     @PostMapping
     public ItemDetailsInfoDto createItem(@RequestBody ItemCreationDto item,
                                          @RequestHeader(HeaderConstants.X_SHARER_USER_ID) long userId) {
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class AvailabilityCache {
+    public static final String CACHE_NAME = "availability";
+
+    private final Cache cache;
+
+    public AvailabilityCache(CacheManager cacheManager) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME),
+                "Кэш " + CACHE_NAME + " не настроен.");
+    }
+
+    public AvailabilityCalendar get(Long itemId, Supplier<AvailabilityCalendar> loader) {
+        try {
+            return Objects.requireNonNull(cache.get(itemId, loader::get));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    public void evict(Long itemId) {
+        log.debug("Календарь вещи #{} удален из кэша", itemId);
+        cache.evict(itemId);
+    }
+
+    // Календарь строится заново: чтение, начатое до фиксации бронирования, положило бы в кэш устаревший снимок.
+    // Удаление ключа ждет завершения такой загрузки и убирает ее результат
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingReserved(BookingReservedEvent event) {
+        evict(event.getItemId());
+    }
+
+    // Объединенный интервал нельзя уменьшить на одно бронирование, поэтому календарь строится заново
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingReleased(BookingReleasedEvent event) {
+        evict(event.getItemId());
+    }
+}
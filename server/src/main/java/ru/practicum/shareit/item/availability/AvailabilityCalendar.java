@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.availability;
+
+import ru.practicum.shareit.item.dto.TimeSlotDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// Занятые интервалы вещи [начало, конец), объединенные так, что они не пересекаются и не соприкасаются.
+// Поиск по отсортированным началам дает проверку пересечения за O(log n) и свободные окна за O(log n + k).
+public class AvailabilityCalendar {
+    private final NavigableMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+    public synchronized void reserve(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime mergedStart = start;
+        LocalDateTime mergedEnd = Objects.requireNonNullElse(end, LocalDateTime.MAX);
+
+        Map.Entry<LocalDateTime, LocalDateTime> previous = busy.floorEntry(start);
+
+        if (previous != null && !previous.getValue().isBefore(start)) {
+            mergedStart = previous.getKey();
+            mergedEnd = latest(mergedEnd, previous.getValue());
+        }
+
+        NavigableMap<LocalDateTime, LocalDateTime> absorbed = busy.subMap(mergedStart, true, mergedEnd, true);
+
+        for (LocalDateTime absorbedEnd : absorbed.values()) {
+            mergedEnd = latest(mergedEnd, absorbedEnd);
+        }
+
+        absorbed.clear();
+        busy.put(mergedStart, mergedEnd);
+    }
+
+    public synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+        // Достаточно проверить последний занятый интервал, начавшийся до конца запрошенного
+        Map.Entry<LocalDateTime, LocalDateTime> last = busy.lowerEntry(
+                Objects.requireNonNullElse(end, LocalDateTime.MAX));
+        return last == null || !last.getValue().isAfter(start);
+    }
+
+    public synchronized List<TimeSlotDto> getFreeSlots(LocalDateTime from, LocalDateTime to) {
+        List<TimeSlotDto> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+
+        Map.Entry<LocalDateTime, LocalDateTime> previous = busy.lowerEntry(from);
+
+        if (previous != null) {
+            cursor = latest(cursor, previous.getValue());
+        }
+
+        for (Map.Entry<LocalDateTime, LocalDateTime> interval : busy.subMap(from, true, to, false).entrySet()) {
+            if (interval.getKey().isAfter(cursor)) {
+                slots.add(new TimeSlotDto(cursor, interval.getKey()));
+            }
+
+            cursor = latest(cursor, interval.getValue());
+        }
+
+        if (cursor.isBefore(to)) {
+            slots.add(new TimeSlotDto(cursor, to));
+        }
+
+        return slots;
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
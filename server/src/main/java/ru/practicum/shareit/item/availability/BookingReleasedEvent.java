@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.availability;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class BookingReleasedEvent {
+    private final Long itemId;
+}
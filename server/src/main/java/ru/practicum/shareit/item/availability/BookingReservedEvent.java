@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.availability;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class BookingReservedEvent {
+    private final Long itemId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class ItemCache {
+    public static final String CACHE_NAME = "items";
+
+    private final Cache cache;
+    private final CommentRepository commentRepository;
+
+    public ItemCache(CacheManager cacheManager, CommentRepository commentRepository) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME),
+                "Кэш " + CACHE_NAME + " не настроен.");
+        this.commentRepository = commentRepository;
+    }
+
+    public Item get(Long itemId, Supplier<Item> loader) {
+        try {
+            // В кэше хранится копия, чтобы изменения возвращенной вещи не попадали в кэш
+            Item item = cache.get(itemId, () -> ItemMapper.copyOf(loader.get()));
+            return ItemMapper.copyOf(Objects.requireNonNull(item));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    public void evict(Long itemId) {
+        log.debug("Вещь #{} удалена из кэша", itemId);
+        cache.evict(itemId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        evict(event.getItemId());
+    }
+
+    // В закэшированных вещах хранятся имена авторов комментариев
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        commentRepository.findItemIdsByAuthorId(event.getUserId()).forEach(this::evict);
+    }
+}
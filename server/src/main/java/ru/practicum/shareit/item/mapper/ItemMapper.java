@@ -1,13 +1,21 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.dto.BookingDatesDto;
+import ru.practicum.shareit.handlers.ETags;
+import ru.practicum.shareit.item.dto.CommentDetailsInfoDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
 import ru.practicum.shareit.item.dto.ItemDetailsInfoDto;
 import ru.practicum.shareit.item.dto.ItemShortInfoDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemDetailsView;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import static java.util.stream.Collectors.toList;
@@ -27,6 +35,20 @@ public class ItemMapper {
                 .build();
     }
 
+    public String toETag(Item item, Long userId) {
+        if (!item.getOwner().getId().equals(userId)) {
+            return ETags.of(item.getId(), item.getVersion(), item.getCommentAuthorsVersion());
+        }
+
+        // Владелец видит последнее и следующее бронирования, поэтому они входят в ETag
+        BookingDatesDto lastBooking = item.getLastBooking();
+        BookingDatesDto nextBooking = item.getNextBooking();
+
+        return ETags.of(item.getId(), item.getVersion(), item.getCommentAuthorsVersion(),
+                Objects.nonNull(lastBooking) ? lastBooking.getId() : null,
+                Objects.nonNull(nextBooking) ? nextBooking.getId() : null);
+    }
+
     public List<ItemDetailsInfoDto> toItemDetailsInfoDto(List<Item> items) {
         return items.stream()
                 .map(ItemMapper::toItemDetailsInfoDto)
@@ -43,6 +65,78 @@ public class ItemMapper {
                 .build();
     }
 
+    public List<Item> toItems(List<ItemDetailsView> rows) {
+        Map<Long, Item> itemsById = new LinkedHashMap<>();
+
+        for (ItemDetailsView row : rows) {
+            Item item = itemsById.computeIfAbsent(row.getId(), id -> toItem(row));
+
+            if (row.getCommentId() != null) {
+                item.getComments().add(CommentDetailsInfoDto.builder()
+                        .id(row.getCommentId())
+                        .text(row.getCommentText())
+                        .authorName(row.getCommentAuthorName())
+                        .created(row.getCommentCreated())
+                        .build());
+            }
+        }
+
+        return new ArrayList<>(itemsById.values());
+    }
+
+    private Item toItem(ItemDetailsView row) {
+        Long requestId = row.getRequestId();
+
+        Item item = Item.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .available(row.getAvailable())
+                .owner(User.builder().id(row.getOwnerId()).build())
+                .request(Objects.nonNull(requestId) ? ItemRequest.builder().id(requestId).build() : null)
+                .comments(new ArrayList<>())
+                .build();
+
+        if (row.getLastBookingId() != null) {
+            item.setLastBooking(BookingDatesDto.builder()
+                    .id(row.getLastBookingId())
+                    .bookerId(row.getLastBookingBookerId())
+                    .start(row.getLastBookingStart())
+                    .end(row.getLastBookingEnd())
+                    .build());
+        }
+
+        if (row.getNextBookingId() != null) {
+            item.setNextBooking(BookingDatesDto.builder()
+                    .id(row.getNextBookingId())
+                    .bookerId(row.getNextBookingBookerId())
+                    .start(row.getNextBookingStart())
+                    .end(row.getNextBookingEnd())
+                    .build());
+        }
+
+        return item;
+    }
+
+    public Item copyOf(Item item) {
+        ItemRequest request = item.getRequest();
+        List<CommentDetailsInfoDto> comments = item.getComments();
+
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(User.builder().id(item.getOwner().getId()).build())
+                .request(Objects.nonNull(request) ? ItemRequest.builder().id(request.getId()).build() : null)
+                .version(item.getVersion())
+                .lastBooking(item.getLastBooking())
+                .nextBooking(item.getNextBooking())
+                .comments(Objects.nonNull(comments) ? List.copyOf(comments) : null)
+                .commentAuthorsVersion(item.getCommentAuthorsVersion())
+                .build();
+    }
+
     public Item toItem(ItemCreationDto itemDto) {
         Long requestId = itemDto.getRequestId();
 
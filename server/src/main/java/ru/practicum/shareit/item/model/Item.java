@@ -5,21 +5,25 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import ru.practicum.shareit.booking.dto.BookingDatesDto;
 import ru.practicum.shareit.item.dto.CommentDetailsInfoDto;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.persistence.PooledSequenceGenerator;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.Version;
 import java.util.List;
 import java.util.Objects;
 
@@ -32,7 +36,9 @@ import java.util.Objects;
 @Setter
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "items_seq")
+    @GenericGenerator(name = "items_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "items_seq"))
     private Long id;
     private String name;
     private String description;
@@ -40,12 +46,15 @@ public class Item {
     @Column(name = "is_available")
     private Boolean available;
 
-    @ManyToOne(fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private User owner;
 
     @OneToOne
     private ItemRequest request;
 
+    @Version
+    private Long version;
+
     @Transient
     private BookingDatesDto lastBooking;
 
@@ -55,6 +64,10 @@ public class Item {
     @Transient
     private List<CommentDetailsInfoDto> comments;
 
+    // Сумма версий авторов комментариев: версии только растут, поэтому сумма меняется при изменении любого автора
+    @Transient
+    private Long commentAuthorsVersion;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,13 +1,16 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemId(Long itemId);
 
-    List<Comment> findByItemInOrderByCreatedDesc(List<Item> items);
+    @Query("SELECT DISTINCT c.item.id FROM Comment c WHERE c.author.id = ?1")
+    List<Long> findItemIdsByAuthorId(Long authorId);
 }
\ No newline at end of file
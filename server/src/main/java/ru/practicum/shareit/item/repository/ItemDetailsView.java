@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.repository;
+
+import java.time.LocalDateTime;
+
+public interface ItemDetailsView {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getOwnerId();
+
+    Long getRequestId();
+
+    Long getLastBookingId();
+
+    Long getLastBookingBookerId();
+
+    LocalDateTime getLastBookingStart();
+
+    LocalDateTime getLastBookingEnd();
+
+    Long getNextBookingId();
+
+    Long getNextBookingBookerId();
+
+    LocalDateTime getNextBookingStart();
+
+    LocalDateTime getNextBookingEnd();
+
+    Long getCommentId();
+
+    String getCommentText();
+
+    String getCommentAuthorName();
+
+    LocalDateTime getCommentCreated();
+}
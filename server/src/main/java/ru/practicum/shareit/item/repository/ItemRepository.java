@@ -2,22 +2,85 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findItemsByOwnerIdOrderById(Long itemId, Pageable pageable);
+    @Query("SELECT i.id AS id, i.owner.id AS ownerId, i.version AS version, " +
+            "       (SELECT COALESCE(SUM(a.version), 0) FROM Comment c JOIN c.author a WHERE c.item = i) " +
+            "           AS commentAuthorsVersion " +
+            "FROM Item i WHERE i.id = ?1")
+    Optional<ItemVersionView> findVersionById(Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long itemId);
+
+    // Строки блокируются в порядке id, чтобы параллельные пакетные бронирования не взаимоблокировались
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN ?1 ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(Collection<Long> itemIds);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.version = i.version + 1 WHERE i.id = ?1")
+    void incrementVersion(Long itemId);
+
+    // Страница вещей владельца вычисляется один раз, последнее и следующее бронирования выбираются по индексу
+    // для каждой вещи страницы
+    @Query(value = "SELECT p.id AS \"id\", p.name AS \"name\", p.description AS \"description\", " +
+            "       p.is_available AS \"available\", p.owner_id AS \"ownerId\", p.request_id AS \"requestId\", " +
+            "       lb.id AS \"lastBookingId\", lb.booker_id AS \"lastBookingBookerId\", " +
+            "       lb.start_date AS \"lastBookingStart\", lb.end_date AS \"lastBookingEnd\", " +
+            "       nb.id AS \"nextBookingId\", nb.booker_id AS \"nextBookingBookerId\", " +
+            "       nb.start_date AS \"nextBookingStart\", nb.end_date AS \"nextBookingEnd\", " +
+            "       c.id AS \"commentId\", c.text AS \"commentText\", u.name AS \"commentAuthorName\", " +
+            "       c.created_at AS \"commentCreated\" " +
+            "FROM (SELECT i.* FROM items i WHERE i.owner_id = ?1 ORDER BY i.id LIMIT ?3 OFFSET ?4) p " +
+            "LEFT JOIN bookings lb ON lb.id = (" +
+            "    SELECT b.id FROM bookings b " +
+            "    WHERE b.item_id = p.id AND b.status = 'APPROVED' AND b.start_date <= ?2 " +
+            "    ORDER BY b.start_date DESC LIMIT 1" +
+            ") " +
+            "LEFT JOIN bookings nb ON nb.id = (" +
+            "    SELECT b.id FROM bookings b " +
+            "    WHERE b.item_id = p.id AND b.status = 'APPROVED' AND b.start_date > ?2 " +
+            "    ORDER BY b.start_date LIMIT 1" +
+            ") " +
+            "LEFT JOIN comments c ON c.item_id = p.id " +
+            "LEFT JOIN users u ON u.id = c.author_id " +
+            "ORDER BY p.id, c.created_at DESC, c.id DESC",
+            nativeQuery = true)
+    List<ItemDetailsView> findItemDetailsByOwnerId(Long ownerId, LocalDateTime currentDateTime, int limit,
+                                                   long offset);
 
     List<Item> findByRequestIn(List<ItemRequest> itemRequests);
 
+    @Query("SELECT i FROM Item i WHERE i.request.id = ?1")
     List<Item> findAllByRequestId(Long itemRequestId);
 
+    List<Item> findFirst500ByIdGreaterThanOrderById(Long itemId);
+
     @Query(" SELECT i FROM Item i " +
             "WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%')) " +
             " OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%'))) " +
             " AND i.available = true")
     List<Item> search(String searchText, Pageable pageable);
+
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.is_available " +
+            " AND (i.name ILIKE CONCAT('%', ?1, '%') OR i.description ILIKE CONCAT('%', ?1, '%')) " +
+            "ORDER BY GREATEST(word_similarity(?1, i.name), word_similarity(?1, i.description)) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchRanked(String searchText, Pageable pageable);
 }
\ No newline at end of file
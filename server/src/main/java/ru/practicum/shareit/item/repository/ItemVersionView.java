@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.repository;
+
+public interface ItemVersionView {
+    Long getId();
+
+    Long getOwnerId();
+
+    Long getVersion();
+
+    Long getCommentAuthorsVersion();
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "shareit.item-search.engine", havingValue = "in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+    private static final String TOKEN_DELIMITER = "[^\\p{L}\\p{N}]+";
+
+    private final ItemRepository itemRepository;
+
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> tokensByItemId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void build() {
+        long lastItemId = 0L;
+        List<Item> items;
+
+        do {
+            items = itemRepository.findFirst500ByIdGreaterThanOrderById(lastItemId);
+            items.forEach(this::index);
+            lastItemId = items.isEmpty() ? lastItemId : items.get(items.size() - 1).getId();
+        } while (!items.isEmpty());
+
+        log.info("Индекс поиска вещей построен: {} вещей, {} токенов", tokensByItemId.size(), postings.size());
+    }
+
+    @Override
+    public List<Item> search(String searchText, Pageable pageable) {
+        List<Long> itemIds = findItemIds(tokenize(searchText)).stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return itemRepository.findAllById(itemIds).stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    // Индекс обновляется только после коммита, иначе откат транзакции оставил бы в нем незафиксированный текст
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemSaved(ItemSavedEvent event) {
+        index(event.getItem());
+    }
+
+    public void index(Item item) {
+        Set<String> tokens = Boolean.TRUE.equals(item.getAvailable())
+                ? tokenize(item.getName() + " " + item.getDescription())
+                : Collections.emptySet();
+
+        lock.writeLock().lock();
+        try {
+            removeFromPostings(item.getId());
+
+            if (!tokens.isEmpty()) {
+                tokens.forEach(token -> postings.computeIfAbsent(token, t -> new HashSet<>()).add(item.getId()));
+                tokensByItemId.put(item.getId(), tokens);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private NavigableSet<Long> findItemIds(Set<String> queryTokens) {
+        NavigableSet<Long> result = null;
+
+        lock.readLock().lock();
+        try {
+            for (String queryToken : queryTokens) {
+                NavigableSet<Long> matches = new TreeSet<>();
+                postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, true)
+                        .values()
+                        .forEach(matches::addAll);
+
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.retainAll(matches);
+                }
+
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return (result != null) ? result : Collections.emptyNavigableSet();
+    }
+
+    private void removeFromPostings(Long itemId) {
+        Set<String> tokens = tokensByItemId.remove(itemId);
+
+        if (tokens == null) {
+            return;
+        }
+
+        tokens.forEach(token -> {
+            Set<Long> itemIds = postings.get(token);
+            itemIds.remove(itemId);
+
+            if (itemIds.isEmpty()) {
+                postings.remove(token);
+            }
+        });
+    }
+
+    private static Set<String> tokenize(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split(TOKEN_DELIMITER))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import ru.practicum.shareit.item.model.Item;
+
+@Getter
+@RequiredArgsConstructor
+@ToString(of = "item")
+public class ItemSavedEvent {
+    private final Item item;
+}
@@ -1,18 +1,24 @@
 package ru.practicum.shareit.item.service;
 
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     Item getItemById(Long itemId, Long userId);
 
+    String getItemETag(Long itemId, Long userId);
+
     List<Item> getItemsByOwnerId(Long ownerId, Pageable pageable);
 
     List<Item> searchItems(String searchText, Pageable pageable);
 
+    List<TimeSlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     Item createItem(Item item, Long ownerId);
 
     Item updateItem(Item item, Long ownerId);
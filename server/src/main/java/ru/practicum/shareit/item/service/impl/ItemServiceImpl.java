@@ -1,74 +1,121 @@
 package ru.practicum.shareit.item.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDatesDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnauthorizedAccessException;
+import ru.practicum.shareit.item.availability.AvailabilityCache;
+import ru.practicum.shareit.item.availability.AvailabilityCalendar;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
 import ru.practicum.shareit.item.dto.CommentDetailsInfoDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemVersionView;
+import ru.practicum.shareit.item.search.ItemSavedEvent;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.validation.ValidationException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final Duration DEFAULT_AVAILABILITY_PERIOD = Duration.ofDays(30);
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemCache itemCache;
+    private final AvailabilityCache availabilityCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Item getItemById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь #" + itemId + " не найдена."));
+        Item item = itemCache.get(itemId, () -> loadItemWithComments(itemId));
         Long itemOwnerId = item.getOwner().getId();
 
         if (itemOwnerId.equals(userId)) {
             setLastAndNextBookingData(item);
         }
 
-        setComments(item);
-
         return item;
     }
 
     @Override
-    public List<Item> getItemsByOwnerId(Long ownerId, Pageable pageable) {
-        List<Item> items = itemRepository.findItemsByOwnerIdOrderById(ownerId, pageable);
+    public String getItemETag(Long itemId, Long userId) {
+        ItemVersionView itemVersion = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь #" + itemId + " не найдена."));
 
-        setLastAndNextBookingData(items);
-        setComments(items);
+        Item item = Item.builder()
+                .id(itemId)
+                .owner(User.builder().id(itemVersion.getOwnerId()).build())
+                .version(itemVersion.getVersion())
+                .commentAuthorsVersion(itemVersion.getCommentAuthorsVersion())
+                .build();
 
-        return items;
+        if (itemVersion.getOwnerId().equals(userId)) {
+            setLastAndNextBookingIds(item);
+        }
+
+        return ItemMapper.toETag(item, userId);
+    }
+
+    @Override
+    public List<Item> getItemsByOwnerId(Long ownerId, Pageable pageable) {
+        return ItemMapper.toItems(itemRepository.findItemDetailsByOwnerId(ownerId, LocalDateTime.now(),
+                pageable.getPageSize(), pageable.getOffset()));
     }
 
     @Override
     public List<Item> searchItems(String searchText, Pageable pageable) {
-        return (!searchText.isBlank()) ? itemRepository.search(searchText, pageable) : Collections.emptyList();
+        return (!searchText.isBlank()) ? itemSearchEngine.search(searchText, pageable) : Collections.emptyList();
+    }
+
+    @Override
+    public List<TimeSlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime currentDateTime = LocalDateTime.now();
+        LocalDateTime periodStart = (from != null && from.isAfter(currentDateTime)) ? from : currentDateTime;
+        LocalDateTime periodEnd = (to != null) ? to : periodStart.plus(DEFAULT_AVAILABILITY_PERIOD);
+
+        if (!periodEnd.isAfter(periodStart)) {
+            throw new ValidationException("Конец периода " + periodEnd + " должен быть позже его начала " +
+                    periodStart + ".");
+        }
+
+        return availabilityCache.get(itemId, () -> loadAvailabilityCalendar(itemId, currentDateTime))
+                .getFreeSlots(periodStart, periodEnd);
     }
 
     @Override
+    @Transactional
     public Item createItem(Item item, Long ownerId) {
         User owner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("Пользователь #" + ownerId + " не найден."));
@@ -79,10 +126,14 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequestRepository.findById(item.getRequest().getId()).orElse(null));
         }
 
-        return itemRepository.save(item);
+        Item createdItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemSavedEvent(createdItem));
+
+        return createdItem;
     }
 
     @Override
+    @Transactional
     public Item updateItem(Item item, Long ownerId) {
         Long itemId = item.getId();
         String itemName = item.getName();
@@ -111,10 +162,17 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(currentItem.getAvailable());
         }
 
-        return itemRepository.save(item);
+        item.setVersion(currentItem.getVersion());
+
+        Item updatedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemSavedEvent(updatedItem));
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+
+        return updatedItem;
     }
 
     @Override
+    @Transactional
     public Comment createComment(Long itemId, Comment comment, Long authorId) {
         LocalDateTime currentDateTime = LocalDateTime.now();
 
@@ -135,29 +193,35 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
         comment.setAuthor(author);
         comment.setCreated(currentDateTime);
-        return commentRepository.save(comment);
+
+        Comment createdComment = commentRepository.save(comment);
+        itemRepository.incrementVersion(itemId);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
+
+        return createdComment;
     }
 
-    private void setLastAndNextBookingData(List<Item> items) {
-        Map<Item, List<Booking>> bookingsByItem = bookingRepository
-                .findAllByItemInAndStatusOrderByStartDesc(items, BookingStatus.APPROVED).stream()
-                .collect(Collectors.groupingBy(Booking::getItem, Collectors.toList()));
-        LocalDateTime currentDateTime = LocalDateTime.now();
+    private Item loadItemWithComments(Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь #" + itemId + " не найдена."));
 
-        items.forEach(item -> {
-            List<Booking> bookings = bookingsByItem.getOrDefault(item, Collections.emptyList());
+        setComments(item);
 
-            Optional<Booking> lastBooking = bookings.stream()
-                    .filter(b -> (!b.getStart().isAfter(currentDateTime)))
-                    .findFirst();
+        return item;
+    }
+
+    // В календарь попадают только бронирования, которые еще не закончились
+    private AvailabilityCalendar loadAvailabilityCalendar(Long itemId, LocalDateTime currentDateTime) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь #" + itemId + " не найдена.");
+        }
+
+        AvailabilityCalendar calendar = new AvailabilityCalendar();
 
-            Optional<Booking> nextBooking = bookings.stream()
-                    .filter(b -> b.getStart().isAfter(currentDateTime))
-                    .reduce((first, second) -> second);
+        bookingRepository.findIntervalsByItemId(itemId, currentDateTime, BookingStatus.RESERVING)
+                .forEach(interval -> calendar.reserve(interval.getStart(), interval.getEnd()));
 
-            lastBooking.ifPresent(booking -> item.setLastBooking(BookingMapper.toBookingDatesDto(booking)));
-            nextBooking.ifPresent(booking -> item.setNextBooking(BookingMapper.toBookingDatesDto(booking)));
-        });
+        return calendar;
     }
 
     private void setLastAndNextBookingData(Item item) {
@@ -177,26 +241,29 @@ public class ItemServiceImpl implements ItemService {
         nextBooking.ifPresent(booking -> item.setNextBooking(BookingMapper.toBookingDatesDto(booking)));
     }
 
-    private void setComments(List<Item> items) {
-        Map<Item, List<Comment>> commentsByItem = commentRepository.findByItemInOrderByCreatedDesc(items)
-                .stream()
-                .collect(Collectors.groupingBy(Comment::getItem, Collectors.toList()));
+    private void setLastAndNextBookingIds(Item item) {
+        Long itemId = item.getId();
+        LocalDateTime currentDateTime = LocalDateTime.now();
 
-        items.forEach(item -> {
-            List<Comment> comments = commentsByItem.getOrDefault(item, Collections.emptyList());
+        bookingRepository
+                .findFirstIdByItemIdAndStartBeforeAndStatusNotOrderByStartDesc(itemId, currentDateTime,
+                        BookingStatus.REJECTED)
+                .ifPresent(booking -> item.setLastBooking(BookingDatesDto.builder().id(booking.getId()).build()));
 
-            item.setComments(comments
-                    .stream()
-                    .map(CommentMapper::toCommentDetailsInfoDto)
-                    .collect(Collectors.toList()));
-        });
+        bookingRepository
+                .findFirstIdByItemIdAndStartAfterAndStatusNotOrderByStart(itemId, currentDateTime,
+                        BookingStatus.REJECTED)
+                .ifPresent(booking -> item.setNextBooking(BookingDatesDto.builder().id(booking.getId()).build()));
     }
 
     private void setComments(Item item) {
-        List<CommentDetailsInfoDto> comments = commentRepository.findAllByItemId(item.getId()).stream()
-                .map(CommentMapper::toCommentDetailsInfoDto)
-                .collect(Collectors.toList());
+        List<Comment> comments = commentRepository.findAllByItemId(item.getId());
 
-        item.setComments(comments);
+        item.setComments(comments.stream()
+                .map(CommentMapper::toCommentDetailsInfoDto)
+                .collect(Collectors.toList()));
+        item.setCommentAuthorsVersion(comments.stream()
+                .mapToLong(comment -> comment.getAuthor().getVersion())
+                .sum());
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package ru.practicum.shareit.itemRequest.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 
 import java.util.List;
@@ -9,5 +10,6 @@ import java.util.List;
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findItemRequestsByRequestorIdOrderByCreatedDesc(Long requestorId);
 
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> ?1 ORDER BY r.created DESC")
     List<ItemRequest> findByRequestorIdNotOrderByCreatedDesc(Long requestorId, Pageable pageable);
 }
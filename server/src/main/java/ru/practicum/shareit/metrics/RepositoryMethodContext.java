@@ -0,0 +1,55 @@
+package ru.practicum.shareit.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+// Запоминает вызванный метод репозитория, чтобы SQL-запросы можно было отнести к нему
+public class RepositoryMethodContext implements MethodInterceptor {
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<RepositoryMethod> CURRENT = new ThreadLocal<>();
+
+    private final String repository;
+
+    public RepositoryMethodContext(Class<?> repositoryInterface) {
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    public static String currentRepository() {
+        RepositoryMethod current = CURRENT.get();
+        return (current != null) ? current.repository : NONE;
+    }
+
+    public static String currentMethod() {
+        RepositoryMethod current = CURRENT.get();
+        return (current != null) ? current.method : NONE;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryMethod previous = CURRENT.get();
+
+        // Внешний метод репозитория остается владельцем запросов вложенных вызовов
+        if (previous != null) {
+            return invocation.proceed();
+        }
+
+        CURRENT.set(new RepositoryMethod(repository, invocation.getMethod().getName()));
+
+        try {
+            return invocation.proceed();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    private static class RepositoryMethod {
+        private final String repository;
+        private final String method;
+
+        private RepositoryMethod(String repository, String method) {
+            this.repository = repository;
+            this.method = method;
+        }
+    }
+}
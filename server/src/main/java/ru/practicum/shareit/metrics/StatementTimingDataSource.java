@@ -0,0 +1,104 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+// Измеряет выполнение каждого SQL-запроса и относит его к методу репозитория, из которого он выполнен
+public class StatementTimingDataSource extends DelegatingDataSource {
+    public static final String TIMER_NAME = "shareit.db.statements";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    // Реестр метрик сам зависит от DataSource, поэтому получается при первом запросе
+    public StatementTimingDataSource(DataSource targetDataSource, Supplier<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        this.meterRegistry = SingletonSupplier.of(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+
+                    Object result = invoke(connection, method, args);
+
+                    if (result instanceof CallableStatement) {
+                        return timed((Statement) result, CallableStatement.class);
+                    }
+
+                    if (result instanceof PreparedStatement) {
+                        return timed((Statement) result, PreparedStatement.class);
+                    }
+
+                    if (result instanceof Statement) {
+                        return timed((Statement) result, Statement.class);
+                    }
+
+                    return result;
+                });
+    }
+
+    private Statement timed(Statement statement, Class<? extends Statement> statementType) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{statementType},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+
+                    MeterRegistry registry = meterRegistry.get();
+                    Timer.Sample sample = Timer.start(registry);
+                    String outcome = "success";
+
+                    try {
+                        return invoke(statement, method, args);
+                    } catch (SQLException | RuntimeException e) {
+                        outcome = "error";
+                        throw e;
+                    } finally {
+                        sample.stop(Timer.builder(TIMER_NAME)
+                                .description("Время выполнения SQL-запросов по методам репозиториев")
+                                .tag("repository", RepositoryMethodContext.currentRepository())
+                                .tag("method", RepositoryMethodContext.currentMethod())
+                                .tag("outcome", outcome)
+                                .register(registry));
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
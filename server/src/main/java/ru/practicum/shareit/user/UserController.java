@@ -1,7 +1,15 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,12 +18,29 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.handlers.HeaderConstants;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/users")
@@ -23,13 +48,102 @@ import java.util.List;
 @Slf4j
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<UserDto>> getUsers() {
-        log.debug("+ getUsers");
-        List<UserDto> users = UserMapper.toUserDto(userService.getUsers());
-        log.debug("- getUsers: {}", users);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserDto>> getUsers(
+            @RequestParam(value = "from", defaultValue = "0") Integer offset,
+            @RequestParam(value = "size", defaultValue = "20") Integer limit,
+            @RequestParam(required = false) Long after
+    ) {
+        log.debug("+ getUsers: from={}, size={}, after={}", offset, limit, after);
+
+        List<User> users = firstPage(offset, limit, after);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (!users.isEmpty() && users.size() == limit) {
+            response.header(HeaderConstants.X_NEXT_CURSOR, String.valueOf(users.get(users.size() - 1).getId()));
+        }
+
+        List<UserDto> userDtos = UserMapper.toUserDto(users);
+        log.debug("- getUsers: {}", userDtos);
+        return response.body(userDtos);
+    }
+
+    // Все пользователи отдаются одним JSON-массивом с chunked-передачей. Страницы читаются по ключу
+    // отдельными короткими транзакциями, поэтому в памяти находится не больше одной страницы.
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamUsers(
+            @RequestParam(value = "from", defaultValue = "0") Integer offset,
+            @RequestParam(value = "size", defaultValue = "20") Integer limit,
+            @RequestParam(required = false) Long after,
+            HttpServletRequest request
+    ) {
+        log.debug("+ streamUsers: from={}, size={}, after={}", offset, limit, after);
+        // Фильтр ETag иначе собрал бы весь поток в памяти
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+
+                List<User> users = firstPage(offset, limit, after);
+
+                while (!users.isEmpty()) {
+                    for (User user : users) {
+                        writer.writeValue(generator, UserMapper.toUserDto(user));
+                    }
+
+                    generator.flush();
+
+                    if (users.size() < limit) {
+                        break;
+                    }
+
+                    users = userService.getUsers(users.get(users.size() - 1).getId(), limit);
+                }
+
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Пользователи пишутся в ответ по одному из курсора БД, весь список в памяти не собирается
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest request) {
+        log.debug("+ exportUsers");
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class);
+
+        StreamingResponseBody body = out -> userService.exportUsers(user -> {
+            try {
+                out.write(writer.writeValueAsBytes(UserMapper.toUserDto(user)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<UserImportResultDto> importUsers(InputStream body) {
+        log.debug("+ importUsers");
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        UserImportResultDto result = userService.importUsers(new NdjsonUserIterator(reader,
+                objectMapper.readerFor(UserDto.class)));
+        log.debug("- importUsers: imported={}, rejected={}", result.getImported(), result.getRejected());
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping("/{userId}")
@@ -63,4 +177,62 @@ public class UserController {
         userService.deleteUser(userId);
         log.debug("- deleteUser");
     }
-}
\ No newline at end of file
+
+    private List<User> firstPage(int offset, int limit, Long after) {
+        if (after == null) {
+            return userService.getUsers(PageRequest.of(offset / limit, limit));
+        }
+
+        return userService.getUsers(after, limit);
+    }
+
+    // Разбирает тело запроса построчно по мере чтения, пустые строки пропускаются
+    @RequiredArgsConstructor
+    private static class NdjsonUserIterator implements Iterator<User> {
+        private final BufferedReader reader;
+        private final ObjectReader objectReader;
+        private String nextLine;
+        private long record;
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String line = reader.readLine();
+
+                    if (line == null) {
+                        return false;
+                    }
+
+                    if (!line.isBlank()) {
+                        nextLine = line;
+                    }
+                }
+
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            String line = nextLine;
+            nextLine = null;
+            record++;
+
+            try {
+                User user = UserMapper.toUser(objectReader.readValue(line));
+                user.setId(null);
+                return user;
+            } catch (JsonProcessingException e) {
+                throw new ValidationException("Запись " + record + " не является корректным JSON: " +
+                        e.getOriginalMessage());
+            }
+        }
+    }
+}
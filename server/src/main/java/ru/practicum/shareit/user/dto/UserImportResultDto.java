@@ -0,0 +1,24 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class UserImportResultDto {
+    private long imported;
+    private long rejected;
+    private List<RejectedUserDto> rejectedUsers;
+
+    @Data
+    @AllArgsConstructor
+    public static class RejectedUserDto {
+        private long record;
+        private String email;
+        private String reason;
+    }
+}
@@ -1,7 +1,30 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    List<User> findAllBy(Pageable pageable);
+
+    List<User> findAllByIdGreaterThan(Long id, Pageable pageable);
+
+    // Пользователи создаются конструктором, а не загружаются как сущности, поэтому контекст не растет при выгрузке,
+    // а курсор читает строки порциями по fetch size
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new ru.practicum.shareit.user.model.User(u.id, u.name, u.email, u.version) FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderById();
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN ?1")
+    Set<String> findExistingEmails(Collection<String> emails);
+}
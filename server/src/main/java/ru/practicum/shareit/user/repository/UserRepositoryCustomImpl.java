@@ -0,0 +1,20 @@
+package ru.practicum.shareit.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private final EntityManager entityManager;
+
+    // Вставки уходят одним пакетом JDBC, после чего контекст очищается, чтобы длинный импорт не копил сущности
+    @Override
+    public void insertAll(List<User> users) {
+        users.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -1,13 +1,23 @@
 package ru.practicum.shareit.user.service;
 
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     User getUserById(Long userId);
 
-    List<User> getUsers();
+    List<User> getUsers(Pageable pageable);
+
+    List<User> getUsers(Long afterId, int limit);
+
+    void exportUsers(Consumer<User> consumer);
+
+    UserImportResultDto importUsers(Iterator<User> users);
 
     User createUser(User user);
 
@@ -1,19 +1,54 @@
 package ru.practicum.shareit.user.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.cache.UserChangedEvent;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_EMAIL_LENGTH = 320;
+    private static final Sort ID_ORDER = Sort.by("id");
+
+    private static final String EXISTING_EMAIL_REASON = "Пользователь с таким электронным адресом уже существует.";
+
     private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserServiceImpl(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
 
     @Override
     public User getUserById(Long userId) {
@@ -22,17 +57,70 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    public List<User> getUsers(Pageable pageable) {
+        return userRepository.findAllBy(withIdOrder(pageable));
+    }
+
+    // Ключевая пагинация: следующая страница начинается после последнего id и не требует OFFSET
+    @Override
+    public List<User> getUsers(Long afterId, int limit) {
+        return userRepository.findAllByIdGreaterThan(afterId, PageRequest.of(0, limit, ID_ORDER));
     }
 
     @Override
+    public void exportUsers(Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderById()) {
+            users.forEach(consumer);
+        }
+    }
+
+    // Импорт идет порциями, каждая в своей транзакции: на порцию один запрос существующих email и пакетная вставка.
+    // Пока клиент передает следующую порцию, соединение с БД не занято. Строки с повторяющимся или некорректным
+    // email пропускаются и попадают в отчет.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserImportResultDto importUsers(Iterator<User> users) {
+        UserImportResultDto result = UserImportResultDto.builder()
+                .rejectedUsers(new ArrayList<>())
+                .build();
+        Map<String, Long> chunk = new LinkedHashMap<>();
+        List<User> chunkUsers = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        long record = 0;
+
+        while (users.hasNext()) {
+            User user = users.next();
+            record++;
+
+            String invalidReason = validateImportedUser(user);
+
+            if (invalidReason != null) {
+                reject(result, record, user.getEmail(), invalidReason);
+            } else if (chunk.putIfAbsent(user.getEmail(), record) != null) {
+                reject(result, record, user.getEmail(), "Электронный адрес повторяется в загружаемых данных.");
+            } else {
+                user.setId(null);
+                chunkUsers.add(user);
+            }
+
+            if (chunkUsers.size() == IMPORT_CHUNK_SIZE) {
+                insertChunk(result, chunk, chunkUsers);
+            }
+        }
+
+        insertChunk(result, chunk, chunkUsers);
+
+        return result;
+    }
+
+    @Override
+    @Transactional
     public User createUser(User user) {
         userRepository.save(user);
         return user;
     }
 
     @Override
+    @Transactional
     public User updateUser(User user) {
 
         User currentUser = getUserById(user.getId());
@@ -45,13 +133,101 @@ public class UserServiceImpl implements UserService {
             user.setEmail(currentUser.getEmail());
         }
 
+        user.setVersion(currentUser.getVersion());
+
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         return user;
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long userId) {
         userRepository.deleteById(userId);
     }
-}
\ No newline at end of file
+
+    private static Pageable withIdOrder(Pageable pageable) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ID_ORDER);
+    }
+
+    private void insertChunk(UserImportResultDto result, Map<String, Long> chunk, List<User> chunkUsers) {
+        if (chunkUsers.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<User> existingUsers = transactionTemplate.execute(status ->
+                    insertNewUsers(chunk.keySet(), chunkUsers));
+
+            for (User user : existingUsers) {
+                reject(result, chunk.get(user.getEmail()), user.getEmail(), EXISTING_EMAIL_REASON);
+            }
+
+            result.setImported(result.getImported() + chunkUsers.size() - existingUsers.size());
+        } catch (DataIntegrityViolationException e) {
+            // Параллельный запрос зафиксировал тот же email между проверкой и вставкой: порция откатилась
+            // целиком, поэтому строки вставляются по одной, а конфликтующие попадают в отчет
+            insertOneByOne(result, chunk, chunkUsers);
+        }
+
+        chunk.clear();
+        chunkUsers.clear();
+    }
+
+    // Строки предыдущих порций уже зафиксированы, поэтому повторы между порциями тоже находятся запросом
+    private List<User> insertNewUsers(Collection<String> emails, List<User> chunkUsers) {
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+        List<User> newUsers = new ArrayList<>(chunkUsers.size());
+        List<User> existingUsers = new ArrayList<>();
+
+        for (User user : chunkUsers) {
+            if (existingEmails.contains(user.getEmail())) {
+                existingUsers.add(user);
+            } else {
+                newUsers.add(user);
+            }
+        }
+
+        userRepository.insertAll(newUsers);
+
+        return existingUsers;
+    }
+
+    private void insertOneByOne(UserImportResultDto result, Map<String, Long> chunk, List<User> chunkUsers) {
+        for (User user : chunkUsers) {
+            // Идентификатор, выданный в откатившейся транзакции, не должен попасть в новую вставку
+            user.setId(null);
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.insertAll(List.of(user)));
+                result.setImported(result.getImported() + 1);
+            } catch (DataIntegrityViolationException e) {
+                reject(result, chunk.get(user.getEmail()), user.getEmail(), EXISTING_EMAIL_REASON);
+            }
+        }
+    }
+
+    private static String validateImportedUser(User user) {
+        if (user.getName() == null || user.getName().isBlank() || user.getName().length() > MAX_NAME_LENGTH) {
+            return "Имя не должно быть пустым и длиннее " + MAX_NAME_LENGTH + " символов.";
+        }
+
+        String email = user.getEmail();
+
+        if (email == null || email.length() > MAX_EMAIL_LENGTH || email.indexOf('@') <= 0
+                || email.indexOf('@') == email.length() - 1) {
+            return "Неверный адрес электронной почты.";
+        }
+
+        return null;
+    }
+
+    private static void reject(UserImportResultDto result, long record, String email, String reason) {
+        result.setRejected(result.getRejected() + 1);
+
+        if (result.getRejectedUsers().size() < MAX_REPORTED_REJECTIONS) {
+            result.getRejectedUsers().add(new UserImportResultDto.RejectedUserDto(record, email, reason));
+        }
+    }
+}
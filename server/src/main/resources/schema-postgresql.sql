@@ -0,0 +1,39 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (name gin_trgm_ops) WHERE is_available;
+
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (description gin_trgm_ops) WHERE is_available;
+
+-- Строки, созданные до перехода с identity на последовательности, не должны пересекаться с новыми идентификаторами.
+-- Последовательность сдвигается только если она еще не использовалась или отстала от данных больше чем на блок,
+-- поэтому повторный запуск не трогает блоки, выданные работающим экземплярам.
+
+SELECT setval('users_seq', m.max_id + 1, false)
+FROM pg_sequences s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM users) m
+WHERE s.schemaname = 'public' AND s.sequencename = 'users_seq'
+  AND (s.last_value IS NULL OR s.last_value + s.increment_by <= m.max_id);
+
+SELECT setval('item_requests_seq', m.max_id + 1, false)
+FROM pg_sequences s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM item_requests) m
+WHERE s.schemaname = 'public' AND s.sequencename = 'item_requests_seq'
+  AND (s.last_value IS NULL OR s.last_value + s.increment_by <= m.max_id);
+
+SELECT setval('items_seq', m.max_id + 1, false)
+FROM pg_sequences s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM items) m
+WHERE s.schemaname = 'public' AND s.sequencename = 'items_seq'
+  AND (s.last_value IS NULL OR s.last_value + s.increment_by <= m.max_id);
+
+SELECT setval('comments_seq', m.max_id + 1, false)
+FROM pg_sequences s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM comments) m
+WHERE s.schemaname = 'public' AND s.sequencename = 'comments_seq'
+  AND (s.last_value IS NULL OR s.last_value + s.increment_by <= m.max_id);
+
+SELECT setval('bookings_seq', m.max_id + 1, false)
+FROM pg_sequences s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM bookings) m
+WHERE s.schemaname = 'public' AND s.sequencename = 'bookings_seq'
+  AND (s.last_value IS NULL OR s.last_value + s.increment_by <= m.max_id);
+
+SELECT setval('booking_idempotency_keys_seq', m.max_id + 1, false)
+FROM pg_sequences s, (SELECT COALESCE(MAX(id), 0) AS max_id FROM booking_idempotency_keys) m
+WHERE s.schemaname = 'public' AND s.sequencename = 'booking_idempotency_keys_seq'
+  AND (s.last_value IS NULL OR s.last_value + s.increment_by <= m.max_id);
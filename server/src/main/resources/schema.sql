@@ -1,14 +1,29 @@
+-- Шаг последовательностей зафиксирован равным PooledSequenceGenerator.ALLOCATION_SIZE (50):
+-- Hibernate выдает идентификаторы блоками (pooled-lo) и не запустится при другом INCREMENT BY
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS item_requests_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS booking_idempotency_keys_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id    BIGINT PRIMARY KEY,
     name  VARCHAR(255) NOT NULL,
     email VARCHAR(320) NOT NULL,
+    version BIGINT       NOT NULL DEFAULT 0,
     UNIQUE (email)
 );
 
 CREATE TABLE IF NOT EXISTS item_requests
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     description  TEXT                         NOT NULL,
     requestor_id BIGINT REFERENCES users (id) NOT NULL,
     created_at   TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
@@ -17,19 +32,20 @@ CREATE TABLE IF NOT EXISTS item_requests
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id           BIGINT PRIMARY KEY,
     name         VARCHAR(255) NOT NULL,
     description  TEXT         NOT NULL,
     is_available BOOLEAN      NOT NULL,
     owner_id     BIGINT       NOT NULL,
     request_id   BIGINT,
+    version      BIGINT       NOT NULL DEFAULT 0,
     CONSTRAINT fk_items_users FOREIGN KEY (owner_id) REFERENCES users (id),
     CONSTRAINT fk_items_requests FOREIGN KEY (request_id) REFERENCES item_requests (id)
 );
 
 CREATE TABLE IF NOT EXISTS comments
 (
-    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id         BIGINT PRIMARY KEY,
     text       TEXT   NOT NULL,
     item_id    BIGINT NOT NULL,
     author_id  BIGINT NOT NULL,
@@ -40,12 +56,52 @@ CREATE TABLE IF NOT EXISTS comments
 
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id         BIGINT PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date   TIMESTAMP WITHOUT TIME ZONE,
     item_id    BIGINT                      NOT NULL,
     booker_id  BIGINT                      NOT NULL,
     status     VARCHAR(8)                  NOT NULL,
+    version    BIGINT                      NOT NULL DEFAULT 0,
     CONSTRAINT fk_bookings_items FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_bookings_users FOREIGN KEY (booker_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS booking_idempotency_keys
+(
+    id              BIGINT PRIMARY KEY,
+    idempotency_key VARCHAR(255) NOT NULL,
+    user_id         BIGINT       NOT NULL,
+    booking_id      BIGINT       NOT NULL,
+    status          VARCHAR(8)   NOT NULL,
+    created_at      TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_booking_idempotency_keys_bookings FOREIGN KEY (booking_id) REFERENCES bookings (id) on delete cascade,
+    UNIQUE (user_id, idempotency_key)
+);
+
+-- Базы, созданные до появления версий, получают столбцы при обновлении: CREATE TABLE IF NOT EXISTS их не добавит
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_booking_idempotency_keys_created_at ON booking_idempotency_keys (created_at);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_item_requests_requestor_id ON item_requests (requestor_id, created_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_item_requests_created_at ON item_requests (created_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id, created_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id_start_date ON bookings (booker_id, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id_status ON bookings (booker_id, status, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_start_date ON bookings (item_id, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_status ON bookings (item_id, status, start_date);
@@ -0,0 +1,176 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.itemRequest.model.ItemRequest;
+import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.QueryPlanTest$SqlRecorder")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Планы выполнения запросов репозиториев")
+public class QueryPlanTest {
+    private static final int USERS = 100;
+    private static final int ITEMS = 500;
+    private static final int BOOKINGS = 5_000;
+    private static final int COMMENTS = 1_000;
+    private static final int REQUESTS = 500;
+
+    private static final Pageable PAGE = Pageable.ofSize(20);
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @BeforeAll
+    public void seed() {
+        Timestamp now = Timestamp.valueOf(NOW);
+
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)",
+                rows(USERS, id -> new Object[]{id, "user" + id, "user" + id + "@mail.ru"}));
+        jdbcTemplate.batchUpdate("INSERT INTO item_requests (id, description, requestor_id, created_at) " +
+                        "VALUES (?, ?, ?, ?)",
+                rows(REQUESTS, id -> new Object[]{id, "request" + id, id % USERS + 1, now}));
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, is_available, owner_id, request_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                rows(ITEMS, id -> new Object[]{id, "item" + id, "description" + id, true, id % USERS + 1,
+                        id % 5 == 0 ? id % REQUESTS + 1 : null}));
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                rows(BOOKINGS, id -> new Object[]{id, Timestamp.valueOf(NOW.plusHours(id - BOOKINGS / 2)),
+                        Timestamp.valueOf(NOW.plusHours(id - BOOKINGS / 2 + 1)), id % ITEMS + 1, id % USERS + 1,
+                        BookingStatus.values()[(int) (id % BookingStatus.values().length)].name()}));
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?)",
+                rows(COMMENTS, id -> new Object[]{id, "comment" + id, id % ITEMS + 1, id % USERS + 1, now}));
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @BeforeEach
+    public void clearRecordedStatements() {
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("Запросы бронирований используют индексы")
+    public void bookingQueriesShouldUseIndexes() {
+        bookingRepository.findFirstBookingByItemIdAndStartBeforeAndStatusNotOrderByStartDesc(1L, NOW,
+                BookingStatus.REJECTED);
+        bookingRepository.findFirstBookingByItemIdAndStartAfterAndStatusNotOrderByStart(1L, NOW,
+                BookingStatus.REJECTED);
+        bookingRepository.existsByBookerIdAndItemIdAndEndBeforeAndStatus(1L, 1L, NOW, BookingStatus.APPROVED);
+
+        List<BookingQuery> bookingQueries = List.of(
+                BookingQuery.builder().build(),
+                BookingQuery.builder().startBefore(NOW).endAfter(NOW).build(),
+                BookingQuery.builder().endBefore(NOW).build(),
+                BookingQuery.builder().startAfter(NOW).build(),
+                BookingQuery.builder().status(BookingStatus.WAITING).build(),
+                BookingQuery.builder().after(new BookingCursor(NOW, 100L)).build());
+        for (BookingQuery bookingQuery : bookingQueries) {
+            bookingRepository.findAll(bookingQuery.toBuilder().bookerId(1L).build());
+            bookingRepository.findAll(bookingQuery.toBuilder().itemOwnerId(1L).build());
+        }
+
+        assertNoTableScans();
+    }
+
+    @Test
+    @DisplayName("Запросы бронирований с разными параметрами имеют одинаковый текст")
+    public void bookingQueriesShouldBindParameters() {
+        bookingRepository.findAll(BookingQuery.builder().bookerId(1L).status(BookingStatus.WAITING).build());
+        bookingRepository.findAll(BookingQuery.builder().bookerId(2L).status(BookingStatus.REJECTED).build());
+
+        Assertions.assertEquals(2, SqlRecorder.STATEMENTS.size());
+        Assertions.assertEquals(SqlRecorder.STATEMENTS.get(0), SqlRecorder.STATEMENTS.get(1));
+    }
+
+    @Test
+    @DisplayName("Запросы вещей и комментариев используют индексы")
+    public void itemAndCommentQueriesShouldUseIndexes() {
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllById(List.of(1L, 2L, 3L));
+        SqlRecorder.STATEMENTS.clear();
+
+        itemRepository.findItemDetailsByOwnerId(1L, NOW, 20, 0);
+        itemRepository.findByRequestIn(itemRequests);
+        itemRepository.findAllByRequestId(1L);
+        itemRepository.findFirst500ByIdGreaterThanOrderById(1L);
+        commentRepository.findAllByItemId(1L);
+
+        assertNoTableScans();
+    }
+
+    @Test
+    @DisplayName("Запросы запросов вещей используют индексы")
+    public void itemRequestQueriesShouldUseIndexes() {
+        itemRequestRepository.findItemRequestsByRequestorIdOrderByCreatedDesc(1L);
+        itemRequestRepository.findByRequestorIdNotOrderByCreatedDesc(1L, PAGE);
+
+        assertNoTableScans();
+    }
+
+    private void assertNoTableScans() {
+        Assertions.assertFalse(SqlRecorder.STATEMENTS.isEmpty());
+
+        SqlRecorder.STATEMENTS.stream().distinct().forEach(sql -> {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+            Assertions.assertFalse(plan.contains(".tableScan"), () -> "Полный просмотр таблицы:\n" + plan);
+        });
+    }
+
+    private static List<Object[]> rows(int count, LongFunction<Object[]> row) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(row)
+                .collect(Collectors.toList());
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        private static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.handlers.HeaderConstants;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Границы транзакций при обработке запросов без open-session-in-view")
+class TransactionBoundaryTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeAll
+    public void seed() {
+        LocalDateTime now = LocalDateTime.now();
+
+        owner = userRepository.save(User.builder().name("Владелец").email("owner@mail.ru").build());
+        booker = userRepository.save(User.builder().name("Арендатор").email("booker@mail.ru").build());
+        item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        booking = bookingRepository.save(Booking.builder()
+                .start(now.minusDays(2))
+                .end(now.minusDays(1))
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.APPROVED)
+                .build());
+        commentRepository.save(Comment.builder()
+                .text("Отличная дрель")
+                .item(item)
+                .author(booker)
+                .created(now)
+                .build());
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @BeforeEach
+    public void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Возвращать бронирование по id за одно соединение с БД")
+    public void shouldRenderBookingWithinSingleConnection() throws Exception {
+        mockMvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header(HeaderConstants.X_SHARER_USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name").value(item.getName()))
+                .andExpect(jsonPath("$.booker.name").value(booker.getName()));
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+    }
+
+    @Test
+    @DisplayName("Возвращать бронирования пользователя и владельца за одно соединение с БД")
+    public void shouldRenderBookingListsWithinSingleConnection() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header(HeaderConstants.X_SHARER_USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.name").value(item.getName()))
+                .andExpect(jsonPath("$[0].booker.name").value(booker.getName()));
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+        statistics.clear();
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header(HeaderConstants.X_SHARER_USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.name").value(item.getName()))
+                .andExpect(jsonPath("$[0].booker.name").value(booker.getName()));
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+    }
+
+    @Test
+    @DisplayName("Возвращать вещь владельцу с комментариями и бронированиями за одно соединение с БД")
+    public void shouldRenderItemWithinSingleConnection() throws Exception {
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(HeaderConstants.X_SHARER_USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].authorName").value(booker.getName()))
+                .andExpect(jsonPath("$.lastBooking.bookerId").value(booker.getId()));
+
+        Assertions.assertEquals(1, statistics.getConnectCount());
+    }
+}
@@ -0,0 +1,211 @@
+package ru.practicum.shareit.booking;
+
+import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+@DirtiesContext
+@DisplayName("Тесты параллельного бронирования")
+class BookingConcurrencyTest {
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final EasyRandom generator = new EasyRandom();
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1);
+    private final LocalDateTime end = start.plusDays(2);
+
+    @AfterEach
+    public void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Допускать только одно бронирование вещи на пересекающийся период")
+    public void shouldNotDoubleBookItemUnderConcurrentRequests() throws Exception {
+        Item item = createItem(createUser());
+        List<User> bookers = createUsers(200);
+
+        List<Long> bookingIds = bookConcurrently(Collections.nCopies(bookers.size(), item), bookers);
+
+        Assertions.assertEquals(1, bookingIds.size());
+        Assertions.assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    @DisplayName("Не блокировать бронирования разных вещей друг другом")
+    public void shouldBookDifferentItemsConcurrently() throws Exception {
+        List<Item> items = new ArrayList<>();
+        List<Item> bookedItems = new ArrayList<>();
+        User owner = createUser();
+
+        for (int i = 0; i < 20; i++) {
+            items.add(createItem(owner));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            bookedItems.addAll(items);
+        }
+
+        List<Long> bookingIds = bookConcurrently(bookedItems, createUsers(bookedItems.size()));
+
+        Assertions.assertEquals(items.size(), bookingIds.size());
+        Assertions.assertEquals(items.size(), bookingRepository.count());
+    }
+
+    @Test
+    @DisplayName("Применять одобрение один раз при параллельных повторах с одним ключом идемпотентности")
+    public void shouldApproveOnceWhenRetriedConcurrentlyWithSameIdempotencyKey() throws Exception {
+        User owner = createUser();
+        Item item = createItem(owner);
+        Booking booking = bookingService.createBooking(newBooking(item), createUser().getId());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Booking>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> {
+                    startSignal.await();
+                    return bookingService.approveOrRejectBooking(booking.getId(), true, owner.getId(), "approve-1");
+                }));
+            }
+
+            startSignal.countDown();
+
+            for (Future<Booking> result : results) {
+                Assertions.assertEquals(BookingStatus.APPROVED, result.get(30, TimeUnit.SECONDS).getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Booking approvedBooking = bookingRepository.findById(booking.getId()).orElseThrow();
+        Assertions.assertEquals(booking.getVersion() + 1, approvedBooking.getVersion());
+        Assertions.assertThrows(ValidationException.class, () ->
+                bookingService.approveOrRejectBooking(booking.getId(), true, owner.getId(), null));
+    }
+
+    private List<Long> bookConcurrently(List<Item> items, List<User> bookers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<Long>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < bookers.size(); i++) {
+                Item item = items.get(i);
+                User booker = bookers.get(i);
+
+                results.add(executor.submit(() -> {
+                    startSignal.await();
+
+                    try {
+                        return bookingService.createBooking(newBooking(item), booker.getId()).getId();
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                        return null;
+                    }
+                }));
+            }
+
+            startSignal.countDown();
+
+            List<Long> bookingIds = new ArrayList<>();
+
+            for (Future<Long> result : results) {
+                Long bookingId = result.get(30, TimeUnit.SECONDS);
+
+                if (bookingId != null) {
+                    bookingIds.add(bookingId);
+                }
+            }
+
+            Assertions.assertEquals(bookers.size(), bookingIds.size() + conflicts.get());
+
+            return bookingIds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Booking newBooking(Item item) {
+        return Booking.builder()
+                .item(Item.builder().id(item.getId()).build())
+                .start(start)
+                .end(end)
+                .build();
+    }
+
+    private List<User> createUsers(int count) {
+        List<User> users = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            users.add(createUser());
+        }
+
+        return users;
+    }
+
+    private User createUser() {
+        User user = generator.nextObject(User.class);
+        user.setId(null);
+        user.setEmail(UUID.randomUUID() + "@mail.ru");
+        return userRepository.save(user);
+    }
+
+    private Item createItem(User owner) {
+        Item item = generator.nextObject(Item.class);
+        item.setId(null);
+        item.setOwner(owner);
+        item.setAvailable(true);
+        item.setLastBooking(null);
+        item.setNextBooking(null);
+        item.setRequest(null);
+        item.setComments(Collections.emptyList());
+        item.setVersion(null);
+
+        return itemRepository.save(item);
+    }
+}
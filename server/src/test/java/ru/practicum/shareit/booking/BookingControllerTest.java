@@ -9,12 +9,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingCreationDto;
 import ru.practicum.shareit.booking.dto.BookingDetailsInfoDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.handlers.HeaderConstants;
@@ -29,6 +31,7 @@ import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -68,6 +71,7 @@ public class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
                 .andExpect(jsonPath("$", hasSize(2)))
                 .andExpect(jsonPath("$[0].id").value(expectedBookings.get(0).getId()))
                 .andExpect(jsonPath("$[1].id").value((expectedBookings.get(1).getId())));
@@ -105,6 +109,42 @@ public class BookingControllerTest {
                 Mockito.anyString(), Mockito.any(PageRequest.class));
     }
 
+    @Test
+    @DisplayName("Возвращать курсор следующей страницы и принимать его в параметре after")
+    public void shouldReturnNextCursorAndAcceptIt() throws Exception {
+        Long bookerId = 1L;
+        List<Booking> bookings = generator.objects(Booking.class, 2).collect(Collectors.toList());
+        String nextCursor = BookingCursor.of(bookings.get(1)).encode();
+
+        Mockito.when(bookingService.getBookingsByBookerId(Mockito.anyLong(), Mockito.anyString(),
+                        Mockito.any(BookingCursor.class), Mockito.anyInt()))
+                .thenReturn(bookings);
+
+        mockMvc.perform(get("/bookings")
+                        .header(HeaderConstants.X_SHARER_USER_ID, bookerId)
+                        .param("size", "2")
+                        .param("after", BookingCursor.of(bookings.get(0)).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HeaderConstants.X_NEXT_CURSOR, nextCursor))
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        Mockito.verify(bookingService).getBookingsByBookerId(bookerId, "ALL",
+                BookingCursor.of(bookings.get(0)), 2);
+    }
+
+    @Test
+    @DisplayName("Возвращать 400 при некорректном курсоре")
+    public void shouldReturnBadRequestForInvalidCursor() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header(HeaderConstants.X_SHARER_USER_ID, 1L)
+                        .param("after", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(bookingService);
+    }
+
     @Test
     @DisplayName("Возвращать бронирование по id")
     public void shouldReturnBookingById() throws Exception {
@@ -130,6 +170,24 @@ public class BookingControllerTest {
         Mockito.verify(bookingService).getBookingById(Mockito.anyLong(), Mockito.anyLong());
     }
 
+    @Test
+    @DisplayName("Возвращать 304 без загрузки бронирования, если ETag совпадает")
+    public void shouldReturnNotModifiedWhenBookingETagMatches() throws Exception {
+        Long bookingId = 1L;
+        Long userId = 1L;
+        String etag = "\"1-1-0\"";
+
+        Mockito.when(bookingService.getBookingETag(bookingId, userId)).thenReturn(etag);
+
+        mockMvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header(HeaderConstants.X_SHARER_USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        Mockito.verify(bookingService, Mockito.never()).getBookingById(Mockito.anyLong(), Mockito.anyLong());
+    }
+
     @Test
     @DisplayName("Создать и вернуть новое бронирование")
     public void shouldCreateAndReturnBooking() throws Exception {
@@ -159,6 +217,37 @@ public class BookingControllerTest {
                 Mockito.anyLong());
     }
 
+    @Test
+    @DisplayName("Создать пакет бронирований и вернуть их в порядке запроса")
+    public void shouldCreateAndReturnBookingsInBatch() throws Exception {
+        Long userId = 1L;
+        User booker = generator.nextObject(User.class);
+        List<BookingCreationDto> bookingDtos = generator.objects(BookingCreationDto.class, 2)
+                .peek(bookingDto -> {
+                    bookingDto.setStart(LocalDateTime.now().plusHours(1));
+                    bookingDto.setEnd(LocalDateTime.now().plusHours(2));
+                })
+                .collect(Collectors.toList());
+
+        List<Booking> bookings = BookingMapper.toBooking(bookingDtos);
+        bookings.forEach(booking -> booking.setBooker(booker));
+
+        Mockito.when(bookingService.createBookings(Mockito.anyList(), Mockito.eq(userId))).thenReturn(bookings);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(HeaderConstants.X_SHARER_USER_ID, userId)
+                        .content(objectMapper.writeValueAsString(bookingDtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(bookingDtos.get(0).getId()))
+                .andExpect(jsonPath("$[1].id").value(bookingDtos.get(1).getId()));
+
+        Mockito.verify(bookingService).createBookings(Mockito.anyList(), Mockito.eq(userId));
+    }
+
     @Test
     @DisplayName("Одобрить или отклонить бронирование, и вернуть обновленное бронирование")
     public void shouldApproveOrRejectBooking() throws Exception {
@@ -172,7 +261,8 @@ public class BookingControllerTest {
 
         Mockito.when(bookingService.approveOrRejectBooking(Mockito.anyLong(),
                         Mockito.anyBoolean(),
-                        Mockito.anyLong()))
+                        Mockito.anyLong(),
+                        Mockito.isNull()))
                 .thenReturn(booking);
 
         mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
@@ -183,6 +273,32 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value(expectedBooking.getStatus().toString()));
 
         Mockito.verify(bookingService).approveOrRejectBooking(Mockito.anyLong(),
-                Mockito.anyBoolean(), Mockito.anyLong());
+                Mockito.anyBoolean(), Mockito.anyLong(), Mockito.isNull());
+    }
+
+    @Test
+    @DisplayName("Передавать ключ идемпотентности при одобрении или отклонении бронирования")
+    public void shouldPassIdempotencyKeyWhenApprovingOrRejectingBooking() throws Exception {
+        Long bookingId = 1L;
+
+        Booking booking = generator.nextObject(Booking.class);
+        booking.setStatus(BookingStatus.REJECTED);
+
+        Mockito.when(bookingService.approveOrRejectBooking(Mockito.eq(bookingId),
+                        Mockito.eq(false),
+                        Mockito.anyLong(),
+                        Mockito.eq("key-1")))
+                .thenReturn(booking);
+
+        mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header(HeaderConstants.X_SHARER_USER_ID, booking.getBooker().getId())
+                        .header(HeaderConstants.IDEMPOTENCY_KEY, "key-1")
+                        .param("approved", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(booking.getId()))
+                .andExpect(jsonPath("$.status").value(BookingStatus.REJECTED.toString()));
+
+        Mockito.verify(bookingService).approveOrRejectBooking(Mockito.eq(bookingId),
+                Mockito.eq(false), Mockito.anyLong(), Mockito.eq("key-1"));
     }
 }
\ No newline at end of file
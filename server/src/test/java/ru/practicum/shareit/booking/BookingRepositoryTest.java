@@ -0,0 +1,268 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dto.BookingDetailsInfoDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingIdempotencyKey;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingIdempotencyKeyRepository;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DisplayName("Тесты для BookingRepository")
+public class BookingRepositoryTest {
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final EasyRandom generator = new EasyRandom();
+
+    @Test
+    @DisplayName("Постраничный обход бронирований по курсору без пропусков и повторов")
+    public void shouldPageBookingsByCursor() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Пары бронирований с одинаковым началом проверяют сортировку по id
+            bookings.add(createBooking(item, booker, start.plusDays(i / 2)));
+        }
+        List<Long> expectedIds = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+
+        List<Long> pagedIds = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<Booking> page;
+        do {
+            page = bookingRepository.findAll(BookingQuery.builder()
+                    .itemOwnerId(owner.getId())
+                    .after(cursor)
+                    .limit(3)
+                    .build());
+            page.forEach(booking -> pagedIds.add(booking.getId()));
+            cursor = page.isEmpty() ? null : BookingCursor.of(page.get(page.size() - 1));
+        } while (page.size() == 3);
+
+        Assertions.assertEquals(expectedIds, pagedIds);
+    }
+
+    @Test
+    @DisplayName("Фильтрация бронирований по вещи, статусу и интервалу дат в одном запросе")
+    public void shouldFindBookingsByComposedQuery() {
+        User owner = createUser();
+        User booker = createUser();
+        Item item = createItem(owner);
+        Item otherItem = createItem(owner);
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+
+        Booking expected = createBooking(item, booker, start.plusDays(1));
+        createBooking(item, booker, start.minusDays(3));
+        createBooking(otherItem, booker, start.plusDays(1));
+        Booking approved = createBooking(item, booker, start.plusDays(2));
+        approved.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(approved);
+
+        List<Booking> bookings = bookingRepository.findAll(BookingQuery.builder()
+                .bookerId(booker.getId())
+                .itemId(item.getId())
+                .status(BookingStatus.WAITING)
+                .startAfter(start)
+                .build());
+
+        Assertions.assertEquals(1, bookings.size());
+        Assertions.assertEquals(expected.getId(), bookings.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Загрузка страницы бронирований с вещами и авторами одним SQL-запросом")
+    public void shouldLoadBookingPageWithItemsAndBookersInSingleStatement() {
+        User owner = createUser();
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+
+        for (int i = 0; i < 100; i++) {
+            createBooking(createItem(owner), createUser(), start.plusDays(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDetailsInfoDto> page = BookingMapper.toBookingDetailsDto(bookingRepository.findAll(
+                BookingQuery.builder()
+                        .itemOwnerId(owner.getId())
+                        .limit(100)
+                        .build()));
+
+        Assertions.assertEquals(100, page.size());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Загрузка бронирования по id вместе с вещью и автором одним SQL-запросом")
+    public void shouldLoadBookingByIdWithItemAndBookerInSingleStatement() {
+        User owner = createUser();
+        Booking booking = createBooking(createItem(owner), createUser(), LocalDateTime.now());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BookingDetailsInfoDto bookingDto = BookingMapper.toBookingDetailsDto(
+                bookingRepository.findById(booking.getId()).orElseThrow());
+
+        Assertions.assertEquals(booking.getItem().getName(), bookingDto.getItem().getName());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Сохранение пакета бронирований пакетными вставками JDBC")
+    public void shouldInsertBookingsInJdbcBatches() {
+        Item item = createItem(createUser());
+        User booker = createUser();
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+        List<Booking> bookings = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            bookings.add(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i + 1))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        // Обращения к последовательности за блоком идентификаторов и один пакетный INSERT вместо 50
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Подготовлено запросов: " + statistics.getPrepareStatementCount());
+        Assertions.assertEquals(50, bookings.stream().map(Booking::getId).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Удаление ключей идемпотентности старше срока хранения")
+    public void shouldDeleteIdempotencyKeysCreatedBeforeCutoff() {
+        User owner = createUser();
+        Booking booking = createBooking(createItem(owner), createUser(), LocalDateTime.now().plusDays(1));
+        LocalDateTime now = LocalDateTime.now();
+        BookingIdempotencyKey expiredKey = idempotencyKeyRepository.save(createIdempotencyKey(owner, booking,
+                "expired", now.minusDays(2)));
+        BookingIdempotencyKey actualKey = idempotencyKeyRepository.save(createIdempotencyKey(owner, booking,
+                "actual", now.minusHours(1)));
+        entityManager.flush();
+
+        int deletedCount = idempotencyKeyRepository.deleteCreatedBefore(now.minusDays(1));
+        entityManager.clear();
+
+        Assertions.assertEquals(1, deletedCount);
+        Assertions.assertTrue(idempotencyKeyRepository.findById(expiredKey.getId()).isEmpty());
+        Assertions.assertTrue(idempotencyKeyRepository.findById(actualKey.getId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Возвращать версию автора бронирования вместе с версиями бронирования и вещи")
+    public void shouldReturnBookerVersionWithBookingVersion() {
+        User booker = createUser();
+        Booking booking = createBooking(createItem(createUser()), booker, LocalDateTime.now().plusDays(1));
+        entityManager.flush();
+
+        Long bookerVersion = bookingRepository.findVersionById(booking.getId()).orElseThrow().getBookerVersion();
+
+        booker.setName("Новое имя");
+        entityManager.flush();
+
+        Assertions.assertEquals(bookerVersion + 1,
+                bookingRepository.findVersionById(booking.getId()).orElseThrow().getBookerVersion());
+    }
+
+    @Test
+    @DisplayName("Кодирование и декодирование курсора")
+    public void shouldEncodeAndDecodeCursor() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2023, 1, 1, 10, 0), 42L);
+
+        Assertions.assertEquals(cursor, BookingCursor.decode(cursor.encode()));
+    }
+
+    private BookingIdempotencyKey createIdempotencyKey(User owner, Booking booking, String key,
+                                                       LocalDateTime created) {
+        return BookingIdempotencyKey.builder()
+                .key(key)
+                .userId(owner.getId())
+                .bookingId(booking.getId())
+                .status(BookingStatus.APPROVED)
+                .created(created)
+                .build();
+    }
+
+    private User createUser() {
+        User user = generator.nextObject(User.class);
+        user.setVersion(null);
+        return userRepository.save(user);
+    }
+
+    private Item createItem(User owner) {
+        Item item = generator.nextObject(Item.class);
+        item.setOwner(owner);
+        item.setRequest(null);
+        return itemRepository.save(item);
+    }
+
+    private Booking createBooking(Item item, User booker, LocalDateTime start) {
+        Booking booking = Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusHours(1))
+                .status(BookingStatus.WAITING)
+                .build();
+        return bookingRepository.save(booking);
+    }
+}
@@ -6,16 +6,27 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingIdempotencyKey;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingIdempotencyKeyRepository;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.impl.BookingServiceImpl;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.availability.BookingReservedEvent;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -24,6 +35,7 @@ import ru.practicum.shareit.user.repository.UserRepository;
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -41,11 +53,18 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private BookingIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private final EasyRandom generator = new EasyRandom();
 
     @BeforeEach
     public void setUp() {
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository,
+                idempotencyKeyRepository, eventPublisher);
     }
 
     @Test
@@ -57,14 +76,18 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.findAllByBookerIdOrderByStartDesc(Mockito.anyLong(),
-                Mockito.any())).thenReturn(bookings);
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class))).thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService.getBookingsByBookerId(booker.getId(),
                 "ALL", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(booker.getId(), query.getBookerId());
+        Assertions.assertNull(query.getStatus());
+        Assertions.assertNull(query.getStartBefore());
     }
 
     @Test
@@ -76,19 +99,19 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByBookerId(booker.getId(), "CURRENT", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(booker.getId(), query.getBookerId());
+        Assertions.assertNotNull(query.getStartBefore());
+        Assertions.assertNotNull(query.getEndAfter());
     }
 
     @Test
@@ -100,18 +123,19 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByBookerIdAndEndBeforeOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByBookerId(booker.getId(), "PAST", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(booker.getId(), query.getBookerId());
+        Assertions.assertNotNull(query.getEndBefore());
+        Assertions.assertNull(query.getStartAfter());
     }
 
 
@@ -124,18 +148,19 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByBookerIdAndStartAfterOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByBookerId(booker.getId(), "FUTURE", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(booker.getId(), query.getBookerId());
+        Assertions.assertNotNull(query.getStartAfter());
+        Assertions.assertNull(query.getEndBefore());
     }
 
     @Test
@@ -147,18 +172,18 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByBookerIdAndStatusOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(BookingStatus.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByBookerId(booker.getId(), "WAITING", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(booker.getId(), query.getBookerId());
+        Assertions.assertEquals(BookingStatus.WAITING, query.getStatus());
     }
 
     @Test
@@ -170,18 +195,40 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByBookerIdAndStatusOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(BookingStatus.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByBookerId(booker.getId(), "REJECTED", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(booker.getId(), query.getBookerId());
+        Assertions.assertEquals(BookingStatus.REJECTED, query.getStatus());
+    }
+
+    @Test
+    @DisplayName("Получение страницы бронирований пользователя после курсора")
+    public void shouldReturnBookingsByBookerIdAfterCursor() {
+        User booker = generator.nextObject(User.class);
+        List<Booking> bookings = generator.objects(Booking.class, 3)
+                .peek(booking -> booking.setBooker(booker))
+                .collect(Collectors.toList());
+        BookingCursor cursor = new BookingCursor(LocalDateTime.now(), 10L);
+
+        Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class))).thenReturn(bookings);
+
+        List<Booking> resultBookings = bookingService.getBookingsByBookerId(booker.getId(), "WAITING", cursor, 3);
+
+        BookingQuery query = captureBookingQuery();
+
+        Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(cursor, query.getAfter());
+        Assertions.assertEquals(0, query.getOffset());
+        Assertions.assertEquals(3, query.getLimit());
     }
 
     @Test
@@ -213,8 +260,7 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository.findAllByItem_OwnerIdOrderByStartDesc(Mockito.anyLong(),
-                Mockito.any())).thenReturn(bookings);
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class))).thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService.getBookingsByItemOwnerId(owner.getId(), "ALL",
                 Pageable.ofSize(10));
@@ -242,19 +288,19 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByItem_OwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByItemOwnerId(owner.getId(), "CURRENT", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(owner.getId(), query.getItemOwnerId());
+        Assertions.assertNotNull(query.getStartBefore());
+        Assertions.assertNotNull(query.getEndAfter());
     }
 
     @Test
@@ -266,18 +312,19 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByItem_OwnerIdAndEndBeforeOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByItemOwnerId(owner.getId(), "PAST", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(owner.getId(), query.getItemOwnerId());
+        Assertions.assertNotNull(query.getEndBefore());
+        Assertions.assertNull(query.getStartAfter());
     }
 
     @Test
@@ -289,18 +336,19 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByItem_OwnerIdAndStartAfterOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(LocalDateTime.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByItemOwnerId(owner.getId(), "FUTURE", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(owner.getId(), query.getItemOwnerId());
+        Assertions.assertNotNull(query.getStartAfter());
+        Assertions.assertNull(query.getEndBefore());
     }
 
     @Test
@@ -312,18 +360,18 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByItem_OwnerIdAndStatusOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(BookingStatus.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByItemOwnerId(owner.getId(), "WAITING", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(owner.getId(), query.getItemOwnerId());
+        Assertions.assertEquals(BookingStatus.WAITING, query.getStatus());
     }
 
     @Test
@@ -335,18 +383,18 @@ class BookingServiceImplTest {
                 .collect(Collectors.toList());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(bookingRepository
-                        .findAllByItem_OwnerIdAndStatusOrderByStartDesc(
-                                Mockito.anyLong(),
-                                Mockito.any(BookingStatus.class),
-                                Mockito.any(Pageable.class)))
+        Mockito.when(bookingRepository.findAll(Mockito.any(BookingQuery.class)))
                 .thenReturn(bookings);
 
         List<Booking> resultBookings = bookingService
                 .getBookingsByItemOwnerId(owner.getId(), "REJECTED", Pageable.ofSize(10));
 
+        BookingQuery query = captureBookingQuery();
+
         Assertions.assertEquals(bookings.size(), resultBookings.size());
         Assertions.assertEquals(bookings, resultBookings);
+        Assertions.assertEquals(owner.getId(), query.getItemOwnerId());
+        Assertions.assertEquals(BookingStatus.REJECTED, query.getStatus());
     }
 
     @Test
@@ -378,7 +426,7 @@ class BookingServiceImplTest {
         Item item = generator.nextObject(Item.class);
 
         Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booker));
-        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.findByIdForUpdate(Mockito.anyLong())).thenReturn(Optional.of(item));
         Mockito.when(bookingRepository.save(Mockito.any())).thenReturn(booking);
 
         Booking resultBooking = bookingService.createBooking(booking, booker.getId());
@@ -405,7 +453,7 @@ class BookingServiceImplTest {
 
         Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booker));
 
-        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        Mockito.when(itemRepository.findByIdForUpdate(Mockito.anyLong())).thenReturn(Optional.empty());
 
         Assertions.assertThrows(NotFoundException.class, () ->
                 bookingService.createBooking(booking, 1L));
@@ -420,7 +468,7 @@ class BookingServiceImplTest {
         item.setAvailable(false);
 
         Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booker));
-        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.findByIdForUpdate(Mockito.anyLong())).thenReturn(Optional.of(item));
 
         Assertions.assertThrows(ValidationException.class, () ->
                 bookingService.createBooking(booking, 1L));
@@ -436,30 +484,211 @@ class BookingServiceImplTest {
         item.setOwner(user);
 
         Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(user));
-        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.findByIdForUpdate(Mockito.anyLong())).thenReturn(Optional.of(item));
 
         Assertions.assertThrows(NotFoundException.class, () ->
                 bookingService.createBooking(booking, user.getId()));
     }
 
+    @Test
+    @DisplayName("Бросить исключение при создании бронирования на занятый период")
+    public void shouldThrowExceptionWhenCreateOverlappingBooking() {
+        Booking booking = generator.nextObject(Booking.class);
+        User booker = generator.nextObject(User.class);
+        Item item = generator.nextObject(Item.class);
+
+        Mockito.when(userRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findByIdForUpdate(Mockito.anyLong())).thenReturn(Optional.of(item));
+        Mockito.when(bookingRepository.existsOverlapping(Mockito.anyLong(), Mockito.eq(0L),
+                Mockito.any(), Mockito.any(), Mockito.anyCollection())).thenReturn(true);
+
+        Assertions.assertThrows(ConflictException.class, () ->
+                bookingService.createBooking(booking, booker.getId()));
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Пакетное создание бронирований с одной загрузкой вещей и занятых интервалов")
+    public void shouldCreateBookingsInBatch() {
+        User booker = generator.nextObject(User.class);
+        Item firstItem = availableItem();
+        Item secondItem = availableItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> bookings = List.of(
+                newBooking(firstItem, start, start.plusHours(1)),
+                newBooking(secondItem, start, start.plusHours(1)),
+                newBooking(firstItem, start.plusHours(1), start.plusHours(2))
+        );
+
+        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findAllByIdForUpdate(Mockito.anyCollection()))
+                .thenReturn(List.of(firstItem, secondItem));
+        Mockito.when(bookingRepository.saveAll(bookings)).thenReturn(bookings);
+
+        List<Booking> createdBookings = bookingService.createBookings(bookings, booker.getId());
+
+        Assertions.assertEquals(bookings, createdBookings);
+        Assertions.assertTrue(createdBookings.stream().allMatch(booking -> booking.getBooker() == booker &&
+                booking.getStatus() == BookingStatus.WAITING));
+        Mockito.verify(itemRepository, Mockito.times(1)).findAllByIdForUpdate(Mockito.anyCollection());
+        Mockito.verify(bookingRepository, Mockito.times(1)).findIntervalsByItemIdIn(Mockito.anyCollection(),
+                Mockito.eq(start), Mockito.eq(BookingStatus.RESERVING));
+        Mockito.verify(eventPublisher, Mockito.times(3)).publishEvent(Mockito.any(BookingReservedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Бросить исключение при пакетном создании бронирований для несуществующих вещей")
+    public void shouldThrowExceptionWhenCreateBookingsForNonExistentItems() {
+        User booker = generator.nextObject(User.class);
+        Item item = availableItem();
+        Item missingItem = availableItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findAllByIdForUpdate(Mockito.anyCollection())).thenReturn(List.of(item));
+
+        final NotFoundException exception = Assertions.assertThrows(NotFoundException.class, () ->
+                bookingService.createBookings(List.of(
+                        newBooking(item, start, start.plusHours(1)),
+                        newBooking(missingItem, start, start.plusHours(1))
+                ), booker.getId()));
+
+        Assertions.assertEquals("Вещи [" + missingItem.getId() + "] не найдены.", exception.getMessage());
+        Mockito.verify(bookingRepository, Mockito.never()).saveAll(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Бросить исключение при пакетном создании бронирований, пересекающихся между собой")
+    public void shouldThrowExceptionWhenCreateBookingsOverlappingEachOther() {
+        User booker = generator.nextObject(User.class);
+        Item item = availableItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findAllByIdForUpdate(Mockito.anyCollection())).thenReturn(List.of(item));
+
+        Assertions.assertThrows(ConflictException.class, () ->
+                bookingService.createBookings(List.of(
+                        newBooking(item, start, start.plusHours(2)),
+                        newBooking(item, start.plusHours(1), start.plusHours(3))
+                ), booker.getId()));
+        Mockito.verify(bookingRepository, Mockito.never()).saveAll(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Бросить исключение при пакетном создании бронирования на занятый период")
+    public void shouldThrowExceptionWhenCreateBookingsOverlappingExistingBooking() {
+        User booker = generator.nextObject(User.class);
+        Item item = availableItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
+        Mockito.when(itemRepository.findAllByIdForUpdate(Mockito.anyCollection())).thenReturn(List.of(item));
+        Mockito.when(bookingRepository.findIntervalsByItemIdIn(Mockito.anyCollection(), Mockito.any(),
+                Mockito.anyCollection())).thenReturn(List.of(new SpelAwareProxyProjectionFactory()
+                .createProjection(BookingIntervalView.class, Map.of(
+                        "itemId", item.getId(),
+                        "start", start.minusHours(1),
+                        "end", start.plusMinutes(30)))));
+
+        Assertions.assertThrows(ConflictException.class, () ->
+                bookingService.createBookings(List.of(newBooking(item, start, start.plusHours(1))),
+                        booker.getId()));
+        Mockito.verify(bookingRepository, Mockito.never()).saveAll(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Бросить исключение при одобрении бронирования на занятый период")
+    public void shouldThrowExceptionWhenApproveOverlappingBooking() {
+        Booking booking = generator.nextObject(Booking.class);
+        booking.setStatus(BookingStatus.WAITING);
+        Long ownerId = booking.getItem().getOwner().getId();
+
+        Mockito.when(bookingRepository.approveIfWaiting(booking.getId(), ownerId)).thenReturn(0);
+        Mockito.when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
+
+        Assertions.assertThrows(ConflictException.class, () ->
+                bookingService.approveOrRejectBooking(booking.getId(), true, ownerId, null));
+    }
+
     @Test
     @DisplayName("Одобрение или отклонение бронирования")
     public void shouldApproveOrRejectBooking() {
         Booking booking = generator.nextObject(Booking.class);
-        booking.setStatus(BookingStatus.WAITING);
+        Long ownerId = booking.getItem().getOwner().getId();
 
+        Mockito.when(bookingRepository.approveIfWaiting(booking.getId(), ownerId)).thenReturn(1);
+        Mockito.when(bookingRepository.rejectIfWaiting(booking.getId(), ownerId)).thenReturn(1);
         Mockito.when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
-        Mockito.when(bookingRepository.save(Mockito.any())).thenReturn(booking);
 
-        Booking approvedBooking = bookingService.approveOrRejectBooking(booking.getId(), true,
-                booking.getItem().getOwner().getId());
-        Assertions.assertEquals(BookingStatus.APPROVED, approvedBooking.getStatus());
+        Assertions.assertEquals(booking, bookingService.approveOrRejectBooking(booking.getId(), true, ownerId,
+                null));
+        Assertions.assertEquals(booking, bookingService.approveOrRejectBooking(booking.getId(), false, ownerId,
+                null));
 
-        booking.setStatus(BookingStatus.WAITING);
+        Mockito.verify(bookingRepository).approveIfWaiting(booking.getId(), ownerId);
+        Mockito.verify(bookingRepository).rejectIfWaiting(booking.getId(), ownerId);
+        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+        Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(Mockito.any(ItemChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Сохранять ключ идемпотентности после изменения статуса")
+    public void shouldSaveIdempotencyKeyWhenApproveBooking() {
+        Booking booking = generator.nextObject(Booking.class);
+        Long ownerId = booking.getItem().getOwner().getId();
+
+        Mockito.when(idempotencyKeyRepository.findByUserIdAndKey(ownerId, "key-1")).thenReturn(Optional.empty());
+        Mockito.when(bookingRepository.approveIfWaiting(booking.getId(), ownerId)).thenReturn(1);
+        Mockito.when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
 
-        Booking rejectedBooking = bookingService.approveOrRejectBooking(booking.getId(), false,
-                booking.getItem().getOwner().getId());
-        Assertions.assertEquals(BookingStatus.REJECTED, rejectedBooking.getStatus());
+        bookingService.approveOrRejectBooking(booking.getId(), true, ownerId, "key-1");
+
+        ArgumentCaptor<BookingIdempotencyKey> captor = ArgumentCaptor.forClass(BookingIdempotencyKey.class);
+        Mockito.verify(idempotencyKeyRepository).save(captor.capture());
+        Assertions.assertEquals("key-1", captor.getValue().getKey());
+        Assertions.assertEquals(booking.getId(), captor.getValue().getBookingId());
+        Assertions.assertEquals(BookingStatus.APPROVED, captor.getValue().getStatus());
+    }
+
+    @Test
+    @DisplayName("Возвращать бронирование без повторного изменения при повторе с тем же ключом")
+    public void shouldReturnBookingWhenApproveRepeatedWithSameIdempotencyKey() {
+        Booking booking = generator.nextObject(Booking.class);
+        booking.setStatus(BookingStatus.APPROVED);
+        Long ownerId = booking.getItem().getOwner().getId();
+        BookingIdempotencyKey key = BookingIdempotencyKey.builder()
+                .key("key-1")
+                .userId(ownerId)
+                .bookingId(booking.getId())
+                .status(BookingStatus.APPROVED)
+                .build();
+
+        Mockito.when(idempotencyKeyRepository.findByUserIdAndKey(ownerId, "key-1")).thenReturn(Optional.of(key));
+        Mockito.when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
+
+        Booking resultBooking = bookingService.approveOrRejectBooking(booking.getId(), true, ownerId, "key-1");
+
+        Assertions.assertEquals(booking, resultBooking);
+        Mockito.verify(bookingRepository, Mockito.never()).approveIfWaiting(Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Бросить исключение при повторе ключа идемпотентности с другим решением")
+    public void shouldThrowExceptionWhenIdempotencyKeyReusedForOtherDecision() {
+        Long ownerId = 1L;
+        BookingIdempotencyKey key = BookingIdempotencyKey.builder()
+                .key("key-1")
+                .userId(ownerId)
+                .bookingId(1L)
+                .status(BookingStatus.APPROVED)
+                .build();
+
+        Mockito.when(idempotencyKeyRepository.findByUserIdAndKey(ownerId, "key-1")).thenReturn(Optional.of(key));
+
+        Assertions.assertThrows(ConflictException.class, () ->
+                bookingService.approveOrRejectBooking(1L, false, ownerId, "key-1"));
     }
 
     @Test
@@ -469,11 +698,12 @@ class BookingServiceImplTest {
         Long userId = 2L;
         Booking booking = generator.nextObject(Booking.class);
         booking.getItem().getOwner().setId(1L);
+        booking.getBooker().setId(userId);
 
         Mockito.when(bookingRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(booking));
 
         Assertions.assertThrows(NotFoundException.class, () ->
-                bookingService.approveOrRejectBooking(booking.getId(), true, userId));
+                bookingService.approveOrRejectBooking(booking.getId(), true, userId, null));
     }
 
     @Test
@@ -486,6 +716,26 @@ class BookingServiceImplTest {
 
         Assertions.assertThrows(ValidationException.class, () ->
                 bookingService.approveOrRejectBooking(booking.getId(), true,
-                        booking.getItem().getOwner().getId()));
+                        booking.getItem().getOwner().getId(), null));
+    }
+
+    private BookingQuery captureBookingQuery() {
+        ArgumentCaptor<BookingQuery> captor = ArgumentCaptor.forClass(BookingQuery.class);
+        Mockito.verify(bookingRepository).findAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private Item availableItem() {
+        Item item = generator.nextObject(Item.class);
+        item.setAvailable(true);
+        return item;
+    }
+
+    private static Booking newBooking(Item item, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .item(Item.builder().id(item.getId()).build())
+                .start(start)
+                .end(end)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.item.availability.AvailabilityCache;
+import ru.practicum.shareit.item.availability.AvailabilityCalendar;
+import ru.practicum.shareit.item.availability.BookingReleasedEvent;
+import ru.practicum.shareit.item.availability.BookingReservedEvent;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@DisplayName("Тесты для календаря доступности вещи")
+class AvailabilityCalendarTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private AvailabilityCalendar calendar;
+
+    @BeforeEach
+    public void setUp() {
+        calendar = new AvailabilityCalendar();
+    }
+
+    @Test
+    @DisplayName("Возвращать свободные окна между занятыми интервалами")
+    public void shouldReturnFreeSlotsBetweenReservations() {
+        calendar.reserve(hour(10), hour(12));
+        calendar.reserve(hour(14), hour(15));
+
+        Assertions.assertEquals(List.of(
+                new TimeSlotDto(hour(8), hour(10)),
+                new TimeSlotDto(hour(12), hour(14)),
+                new TimeSlotDto(hour(15), hour(18))
+        ), calendar.getFreeSlots(hour(8), hour(18)));
+    }
+
+    @Test
+    @DisplayName("Объединять пересекающиеся и соприкасающиеся интервалы")
+    public void shouldMergeOverlappingAndAdjacentReservations() {
+        calendar.reserve(hour(10), hour(12));
+        calendar.reserve(hour(14), hour(16));
+        calendar.reserve(hour(12), hour(13));
+        calendar.reserve(hour(11), hour(15));
+
+        Assertions.assertEquals(List.of(
+                new TimeSlotDto(hour(8), hour(10)),
+                new TimeSlotDto(hour(16), hour(18))
+        ), calendar.getFreeSlots(hour(8), hour(18)));
+    }
+
+    @Test
+    @DisplayName("Учитывать интервал, начавшийся до запрошенного периода")
+    public void shouldClipReservationStartedBeforePeriod() {
+        calendar.reserve(hour(6), hour(9));
+
+        Assertions.assertEquals(List.of(new TimeSlotDto(hour(9), hour(12))),
+                calendar.getFreeSlots(hour(8), hour(12)));
+        Assertions.assertTrue(calendar.getFreeSlots(hour(7), hour(8)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Проверять пересечение с занятыми интервалами")
+    public void shouldCheckOverlap() {
+        calendar.reserve(hour(10), hour(12));
+        calendar.reserve(hour(14), hour(16));
+
+        Assertions.assertTrue(calendar.isFree(hour(12), hour(14)));
+        Assertions.assertTrue(calendar.isFree(hour(8), hour(10)));
+        Assertions.assertFalse(calendar.isFree(hour(11), hour(13)));
+        Assertions.assertFalse(calendar.isFree(hour(13), hour(17)));
+        Assertions.assertFalse(calendar.isFree(hour(9), hour(20)));
+    }
+
+    @Test
+    @DisplayName("Считать бронирование без даты окончания бессрочным")
+    public void shouldTreatReservationWithoutEndAsOpenEnded() {
+        calendar.reserve(hour(10), null);
+
+        Assertions.assertEquals(List.of(new TimeSlotDto(hour(8), hour(10))),
+                calendar.getFreeSlots(hour(8), hour(18)));
+    }
+
+    @Test
+    @DisplayName("Строить календарь заново после бронирования и отмены бронирования")
+    public void shouldRebuildCachedCalendarOnBookingEvents() {
+        AvailabilityCache availabilityCache =
+                new AvailabilityCache(new ConcurrentMapCacheManager(AvailabilityCache.CACHE_NAME));
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<AvailabilityCalendar> loader = () -> {
+            loads.incrementAndGet();
+            return calendar;
+        };
+
+        availabilityCache.get(1L, loader);
+        availabilityCache.get(1L, loader);
+        Assertions.assertEquals(1, loads.get());
+
+        availabilityCache.onBookingReserved(new BookingReservedEvent(1L, hour(10), hour(12)));
+        availabilityCache.get(1L, loader);
+        Assertions.assertEquals(2, loads.get());
+
+        availabilityCache.onBookingReleased(new BookingReleasedEvent(1L));
+        availabilityCache.get(1L, loader);
+        Assertions.assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Не оставлять в кэше календарь, загруженный до фиксации параллельного бронирования")
+    public void shouldNotCacheCalendarLoadedBeforeConcurrentBooking() throws Exception {
+        AvailabilityCache availabilityCache =
+                new AvailabilityCache(new CaffeineCacheManager(AvailabilityCache.CACHE_NAME));
+        CountDownLatch snapshotTaken = new CountDownLatch(1);
+        CountDownLatch bookingCommitted = new CountDownLatch(1);
+
+        // Загрузчик читает бронирования до фиксации нового и возвращает снимок уже после нее
+        Thread reader = new Thread(() -> availabilityCache.get(1L, () -> {
+            AvailabilityCalendar snapshot = new AvailabilityCalendar();
+            snapshotTaken.countDown();
+            awaitUninterruptibly(bookingCommitted);
+            return snapshot;
+        }));
+        reader.start();
+        Assertions.assertTrue(snapshotTaken.await(5, TimeUnit.SECONDS));
+
+        Thread committer = new Thread(() ->
+                availabilityCache.onBookingReserved(new BookingReservedEvent(1L, hour(10), hour(12))));
+        committer.start();
+        awaitBlockedOrTerminated(committer);
+        bookingCommitted.countDown();
+        reader.join(5000);
+        committer.join(5000);
+
+        calendar.reserve(hour(10), hour(12));
+
+        Assertions.assertFalse(availabilityCache.get(1L, () -> calendar).isFree(hour(10), hour(12)));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitBlockedOrTerminated(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (thread.getState() != Thread.State.BLOCKED && thread.getState() != Thread.State.WAITING
+                && thread.getState() != Thread.State.TERMINATED && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static LocalDateTime hour(int hour) {
+        return DAY.plusHours(hour);
+    }
+}
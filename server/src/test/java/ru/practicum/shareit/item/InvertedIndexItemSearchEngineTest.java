@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InvertedIndexItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSavedEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тесты для InvertedIndexItemSearchEngine")
+class InvertedIndexItemSearchEngineTest {
+    private InvertedIndexItemSearchEngine searchEngine;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private final Item drill = createItem(1L, "Дрель", "Аккумуляторная дрель", true);
+    private final Item screwdriver = createItem(2L, "Отвертка", "Аккумуляторная отвертка", true);
+    private final Item hammer = createItem(3L, "Молоток", "Тяжелый молоток", false);
+
+    @BeforeEach
+    public void setUp() {
+        searchEngine = new InvertedIndexItemSearchEngine(itemRepository);
+
+        Mockito.when(itemRepository.findFirst500ByIdGreaterThanOrderById(0L))
+                .thenReturn(List.of(drill, screwdriver, hammer));
+        Mockito.when(itemRepository.findFirst500ByIdGreaterThanOrderById(3L))
+                .thenReturn(Collections.emptyList());
+
+        searchEngine.build();
+    }
+
+    @Test
+    @DisplayName("Находить доступные вещи по началу слова без учета регистра")
+    public void shouldFindAvailableItemsByTokenPrefix() {
+        mockFindAllById();
+
+        List<Item> items = searchEngine.search("аККумулятор", Pageable.ofSize(10));
+
+        Assertions.assertEquals(List.of(drill, screwdriver), items);
+    }
+
+    @Test
+    @DisplayName("Не находить недоступные вещи")
+    public void shouldNotFindUnavailableItems() {
+        List<Item> items = searchEngine.search("молоток", Pageable.ofSize(10));
+
+        Assertions.assertTrue(items.isEmpty());
+        Mockito.verify(itemRepository, Mockito.never()).findAllById(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Требовать совпадения всех слов запроса")
+    public void shouldMatchAllQueryTokens() {
+        mockFindAllById();
+
+        List<Item> items = searchEngine.search("аккумуляторная отвертка", Pageable.ofSize(10));
+
+        Assertions.assertEquals(List.of(screwdriver), items);
+    }
+
+    @Test
+    @DisplayName("Загружать из БД только запрошенную страницу")
+    public void shouldHydrateOnlyRequestedPage() {
+        mockFindAllById();
+
+        List<Item> items = searchEngine.search("аккумуляторная", PageRequest.of(1, 1));
+
+        Assertions.assertEquals(List.of(screwdriver), items);
+        Mockito.verify(itemRepository).findAllById(List.of(screwdriver.getId()));
+    }
+
+    @Test
+    @DisplayName("Обновлять индекс при изменении вещи")
+    public void shouldReindexUpdatedItem() {
+        mockFindAllById();
+
+        searchEngine.index(createItem(drill.getId(), "Перфоратор", "Мощный перфоратор", true));
+        searchEngine.index(createItem(hammer.getId(), hammer.getName(), hammer.getDescription(), true));
+
+        Assertions.assertTrue(searchEngine.search("дрель", Pageable.ofSize(10)).isEmpty());
+        Assertions.assertEquals(List.of(drill), searchEngine.search("перфоратор", Pageable.ofSize(10)));
+        Assertions.assertEquals(List.of(hammer), searchEngine.search("молоток", Pageable.ofSize(10)));
+    }
+
+    @Test
+    @DisplayName("Индексировать вещь по событию сохранения")
+    public void shouldIndexItemOnItemSavedEvent() {
+        mockFindAllById();
+
+        searchEngine.onItemSaved(new ItemSavedEvent(createItem(hammer.getId(), "Кувалда", "Тяжелая кувалда", true)));
+
+        Assertions.assertEquals(List.of(hammer), searchEngine.search("кувалда", Pageable.ofSize(10)));
+    }
+
+    private void mockFindAllById() {
+        List<Item> items = List.of(drill, screwdriver, hammer);
+
+        Mockito.when(itemRepository.findAllById(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Iterable<Long> ids = invocation.getArgument(0);
+            List<Long> idList = new ArrayList<>();
+            ids.forEach(idList::add);
+            return items.stream()
+                    .filter(item -> idList.contains(item.getId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private static Item createItem(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
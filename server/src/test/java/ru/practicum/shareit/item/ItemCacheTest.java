@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item;
+
+import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
+import ru.practicum.shareit.item.cache.UserChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@DisplayName("Тесты для ItemCache")
+class ItemCacheTest {
+    private ItemCache itemCache;
+
+    private final CommentRepository commentRepository = Mockito.mock(CommentRepository.class);
+
+    private final EasyRandom generator = new EasyRandom();
+
+    @BeforeEach
+    public void setUp() {
+        itemCache = new ItemCache(new ConcurrentMapCacheManager(ItemCache.CACHE_NAME), commentRepository);
+    }
+
+    @Test
+    @DisplayName("Загружать вещь один раз и возвращать копии")
+    public void shouldLoadItemOnceAndReturnCopies() {
+        Item item = generator.nextObject(Item.class);
+        AtomicInteger loads = new AtomicInteger();
+
+        Item first = itemCache.get(item.getId(), () -> {
+            loads.incrementAndGet();
+            return item;
+        });
+        Item second = itemCache.get(item.getId(), () -> {
+            loads.incrementAndGet();
+            return item;
+        });
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(item.getName(), second.getName());
+        Assertions.assertNotSame(first, second);
+    }
+
+    @Test
+    @DisplayName("Загружать вещь заново после события изменения")
+    public void shouldReloadItemAfterItemChangedEvent() {
+        Item item = generator.nextObject(Item.class);
+        itemCache.get(item.getId(), () -> item);
+
+        itemCache.onItemChanged(new ItemChangedEvent(item.getId()));
+        item.setName("Новое наименование");
+
+        Assertions.assertEquals("Новое наименование", itemCache.get(item.getId(), () -> item).getName());
+    }
+
+    @Test
+    @DisplayName("Загружать заново вещи с комментариями пользователя после его изменения")
+    public void shouldReloadCommentedItemsAfterUserChangedEvent() {
+        Item commented = generator.nextObject(Item.class);
+        Item other = generator.nextObject(Item.class);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Item> loader = () -> {
+            loads.incrementAndGet();
+            return commented;
+        };
+        itemCache.get(commented.getId(), loader);
+        itemCache.get(other.getId(), () -> other);
+
+        Mockito.when(commentRepository.findItemIdsByAuthorId(7L)).thenReturn(List.of(commented.getId()));
+        itemCache.onUserChanged(new UserChangedEvent(7L));
+
+        itemCache.get(commented.getId(), loader);
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(other.getName(), itemCache.get(other.getId(), () -> commented).getName());
+    }
+
+    @Test
+    @DisplayName("Пробрасывать исключение загрузчика и не кэшировать результат")
+    public void shouldRethrowLoaderExceptionWithoutCaching() {
+        Assertions.assertThrows(NotFoundException.class, () -> itemCache.get(1L, () -> {
+            throw new NotFoundException("Вещь #1 не найдена.");
+        }));
+
+        Item item = generator.nextObject(Item.class);
+        Assertions.assertEquals(item.getName(), itemCache.get(1L, () -> item).getName());
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -16,6 +17,7 @@ import ru.practicum.shareit.handlers.HeaderConstants;
 import ru.practicum.shareit.item.dto.CommentCreationDto;
 import ru.practicum.shareit.item.dto.ItemCreationDto;
 import ru.practicum.shareit.item.dto.ItemDetailsInfoDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
@@ -24,12 +26,15 @@ import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -105,6 +110,64 @@ public class ItemControllerTest {
         Mockito.verify(itemService).getItemById(Mockito.anyLong(), Mockito.anyLong());
     }
 
+    @Test
+    @DisplayName("Возвращать свободные окна вещи за период")
+    public void shouldReturnItemAvailability() throws Exception {
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 8, 0);
+        LocalDateTime to = from.plusHours(10);
+
+        Mockito.when(itemService.getItemAvailability(itemId, from, to))
+                .thenReturn(List.of(new TimeSlotDto(from, from.plusHours(2))));
+
+        mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].start").value("2030-01-01T08:00:00"))
+                .andExpect(jsonPath("$[0].end").value("2030-01-01T10:00:00"));
+
+        Mockito.verify(itemService).getItemAvailability(itemId, from, to);
+    }
+
+    @Test
+    @DisplayName("Возвращать 304 без загрузки вещи, если ETag совпадает")
+    public void shouldReturnNotModifiedWhenItemETagMatches() throws Exception {
+        Long itemId = 1L;
+        Long userId = 2L;
+        String etag = "\"1-3\"";
+
+        Mockito.when(itemService.getItemETag(itemId, userId)).thenReturn(etag);
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(HeaderConstants.X_SHARER_USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        Mockito.verify(itemService, Mockito.never()).getItemById(Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Возвращать вещь с новым ETag, если ETag не совпадает")
+    public void shouldReturnItemWithETagWhenItemETagDiffers() throws Exception {
+        Long userId = 2L;
+        Item item = generator.nextObject(Item.class);
+
+        Mockito.when(itemService.getItemETag(item.getId(), userId)).thenReturn("\"1-3\"");
+        Mockito.when(itemService.getItemById(item.getId(), userId)).thenReturn(item);
+
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(HeaderConstants.X_SHARER_USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ItemMapper.toETag(item, userId)))
+                .andExpect(jsonPath("$.id").value(item.getId()));
+    }
+
     @Test
     @DisplayName("Бросить исключение при получении вещи с неверным ID")
     public void shouldThrowExceptionWhenGetItemWithInvalidId() throws Exception {
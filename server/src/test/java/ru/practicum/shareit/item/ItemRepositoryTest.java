@@ -8,12 +8,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemDetailsView;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.itemRequest.model.ItemRequest;
 import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -33,16 +35,21 @@ public class ItemRepositoryTest {
     private final EasyRandom generator = new EasyRandom();
 
     @Test
-    @DisplayName("Поиск вещей по id владельца и сортировка по id")
-    public void shouldFindItemsByOwnerIdOrderById() {
+    @DisplayName("Поиск вещей по id владельца с сортировкой по id и ограничением страницы")
+    public void shouldFindItemDetailsByOwnerIdOrderById() {
         User owner = createUser();
         Item itemOne = createItem(owner);
         Item itemTwo = createItem(owner);
+        createItem(owner);
 
-        List<Item> items = itemRepository.findItemsByOwnerIdOrderById(owner.getId(), Pageable.ofSize(10));
+        List<ItemDetailsView> items = itemRepository.findItemDetailsByOwnerId(owner.getId(), LocalDateTime.now(),
+                2, 0);
 
         Assertions.assertEquals(2, items.size());
         Assertions.assertEquals(itemOne.getId(), items.get(0).getId());
+        Assertions.assertEquals(owner.getId(), items.get(0).getOwnerId());
+        Assertions.assertNull(items.get(0).getLastBookingId());
+        Assertions.assertNull(items.get(0).getCommentId());
         Assertions.assertEquals(itemTwo.getId(), items.get(1).getId());
     }
 
@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
@@ -202,9 +203,56 @@ public class ItemServiceImplIntegrationTest {
         Assertions.assertEquals(comment.getAuthor().getId(), createdComment.getAuthor().getId());
     }
 
+    @Test
+    @DirtiesContext
+    @DisplayName("Менять ETag вещи после добавления комментария и нового бронирования")
+    public void shouldChangeItemETagAfterCommentAndBooking() {
+        User author = createUser();
+        User owner = createUser();
+        Item item = createItem(owner);
+        pastBooking(item, author);
+
+        String ownerETag = itemService.getItemETag(item.getId(), owner.getId());
+        String authorETag = itemService.getItemETag(item.getId(), author.getId());
+
+        Comment comment = generator.nextObject(Comment.class);
+        comment.setId(null);
+        itemService.createComment(item.getId(), comment, author.getId());
+
+        Assertions.assertNotEquals(authorETag, itemService.getItemETag(item.getId(), author.getId()));
+        Assertions.assertEquals(itemService.getItemETag(item.getId(), author.getId()),
+                ItemMapper.toETag(itemService.getItemById(item.getId(), author.getId()), author.getId()));
+
+        String ownerETagAfterComment = itemService.getItemETag(item.getId(), owner.getId());
+        Assertions.assertNotEquals(ownerETag, ownerETagAfterComment);
+
+        futureBooking(item, author);
+
+        Assertions.assertNotEquals(ownerETagAfterComment, itemService.getItemETag(item.getId(), owner.getId()));
+        Assertions.assertEquals(itemService.getItemETag(item.getId(), owner.getId()),
+                ItemMapper.toETag(itemService.getItemById(item.getId(), owner.getId()), owner.getId()));
+    }
+
+    @Test
+    @DirtiesContext
+    @DisplayName("Менять ETag вещи после изменения имени автора комментария")
+    public void shouldChangeItemETagAfterCommentAuthorRenamed() {
+        User author = createUser();
+        Item item = createItem(createUser());
+        createComment(item, author);
+
+        String etag = itemService.getItemETag(item.getId(), author.getId());
+
+        author.setName("Новое имя");
+        userRepository.saveAndFlush(author);
+
+        Assertions.assertNotEquals(etag, itemService.getItemETag(item.getId(), author.getId()));
+    }
+
     private User createUser() {
         User owner = generator.nextObject(User.class);
         owner.setId(null);
+        owner.setVersion(null);
         return userRepository.save(owner);
     }
 
@@ -217,6 +265,7 @@ public class ItemServiceImplIntegrationTest {
         item.setNextBooking(null);
         item.setRequest(null);
         item.setComments(Collections.emptyList());
+        item.setVersion(null);
 
         return itemRepository.save(item);
     }
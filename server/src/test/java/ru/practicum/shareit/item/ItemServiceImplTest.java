@@ -9,18 +9,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import ru.practicum.shareit.booking.dto.BookingDatesDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnauthorizedAccessException;
+import ru.practicum.shareit.item.availability.AvailabilityCache;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemChangedEvent;
+import ru.practicum.shareit.item.dto.CommentDetailsInfoDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemDetailsView;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSavedEvent;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.impl.ItemServiceImpl;
 import ru.practicum.shareit.itemRequest.repository.ItemRequestRepository;
@@ -31,6 +43,7 @@ import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -55,12 +68,19 @@ class ItemServiceImplTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private final EasyRandom generator = new EasyRandom();
 
     @BeforeEach
     public void setUp() {
         itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, itemRequestRepository,
-                commentRepository);
+                commentRepository, itemSearchEngine, new ItemCache(new ConcurrentMapCacheManager(ItemCache.CACHE_NAME), commentRepository),
+                new AvailabilityCache(new ConcurrentMapCacheManager(AvailabilityCache.CACHE_NAME)), eventPublisher);
     }
 
     @Test
@@ -76,6 +96,23 @@ class ItemServiceImplTest {
         Assertions.assertEquals(item, resultItem);
     }
 
+    @Test
+    @DisplayName("Возвращать вещь из кэша при повторном запросе")
+    public void shouldReturnCachedItemById() {
+        Item item = generator.nextObject(Item.class);
+        Long itemId = item.getId();
+
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        Item firstItem = itemService.getItemById(itemId, null);
+        firstItem.setName("Измененное название");
+        Item secondItem = itemService.getItemById(itemId, null);
+
+        Assertions.assertEquals(item.getName(), secondItem.getName());
+        Mockito.verify(itemRepository, Mockito.times(1)).findById(itemId);
+        Mockito.verify(commentRepository, Mockito.times(1)).findAllByItemId(itemId);
+    }
+
     @Test
     @DisplayName("Бросить исключение при получении вещи с неверным ID")
     public void shouldThrowExceptionWhenGetItemWithInvalidId() {
@@ -122,18 +159,33 @@ class ItemServiceImplTest {
     @DisplayName("Возвращать список вещей по ID владельца")
     public void shouldReturnItemsByOwnerId() {
         User owner = generator.nextObject(User.class);
-        List<Item> items = generator.objects(Item.class, 3)
-                .peek(item -> item.setOwner(owner))
-                .collect(Collectors.toList());
-
-        Mockito.when(itemRepository
-                        .findItemsByOwnerIdOrderById(Mockito.anyLong(), Mockito.any(Pageable.class)))
-                .thenReturn(items);
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<ItemDetailsView> rows = List.of(
+                itemDetailsView(Map.of("id", 1L, "ownerId", owner.getId(), "lastBookingId", 10L,
+                        "lastBookingStart", start, "commentId", 100L, "commentText", "первый")),
+                itemDetailsView(Map.of("id", 1L, "ownerId", owner.getId(), "lastBookingId", 10L,
+                        "lastBookingStart", start, "commentId", 101L, "commentText", "второй")),
+                itemDetailsView(Map.of("id", 2L, "ownerId", owner.getId(), "nextBookingId", 20L)));
+
+        Mockito.when(itemRepository.findItemDetailsByOwnerId(Mockito.eq(owner.getId()),
+                        Mockito.any(LocalDateTime.class), Mockito.eq(10), Mockito.eq(0L)))
+                .thenReturn(rows);
 
         List<Item> resultItems = itemService.getItemsByOwnerId(owner.getId(), Pageable.ofSize(10));
 
-        Assertions.assertEquals(items.size(), resultItems.size());
-        Assertions.assertEquals(items, resultItems);
+        Assertions.assertEquals(2, resultItems.size());
+        Assertions.assertEquals(1L, resultItems.get(0).getId());
+        Assertions.assertEquals(owner.getId(), resultItems.get(0).getOwner().getId());
+        Assertions.assertEquals(10L, resultItems.get(0).getLastBooking().getId());
+        Assertions.assertEquals(start, resultItems.get(0).getLastBooking().getStart());
+        Assertions.assertNull(resultItems.get(0).getNextBooking());
+        Assertions.assertEquals(List.of(100L, 101L), resultItems.get(0).getComments().stream()
+                .map(CommentDetailsInfoDto::getId)
+                .collect(Collectors.toList()));
+        Assertions.assertEquals(2L, resultItems.get(1).getId());
+        Assertions.assertNull(resultItems.get(1).getLastBooking());
+        Assertions.assertEquals(20L, resultItems.get(1).getNextBooking().getId());
+        Assertions.assertTrue(resultItems.get(1).getComments().isEmpty());
     }
 
     @Test
@@ -144,7 +196,7 @@ class ItemServiceImplTest {
         items.get(0).setName("Название с " + searchText);
         items.get(1).setDescription("Описание с " + searchText);
 
-        Mockito.when(itemRepository.search(Mockito.anyString(), Mockito.any(Pageable.class))).thenReturn(items);
+        Mockito.when(itemSearchEngine.search(Mockito.anyString(), Mockito.any(Pageable.class))).thenReturn(items);
 
         List<Item> resultItems = itemService.searchItems(searchText, Pageable.ofSize(10));
 
@@ -160,7 +212,7 @@ class ItemServiceImplTest {
         List<Item> resultItems = itemService.searchItems(emptySearchText, Pageable.ofSize(10));
 
         Assertions.assertEquals(Collections.emptyList(), resultItems);
-        Mockito.verify(itemRepository, Mockito.never()).search(Mockito.anyString(), Mockito.any(Pageable.class));
+        Mockito.verify(itemSearchEngine, Mockito.never()).search(Mockito.anyString(), Mockito.any(Pageable.class));
     }
 
     @Test
@@ -177,6 +229,7 @@ class ItemServiceImplTest {
         Assertions.assertEquals(item, createdItem);
         Assertions.assertEquals(owner, createdItem.getOwner());
         Mockito.verify(itemRepository).save(Mockito.eq(item));
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(ItemSavedEvent.class));
     }
 
     @Test
@@ -228,6 +281,8 @@ class ItemServiceImplTest {
         Mockito.verify(userRepository).findById(ownerId);
         Mockito.verify(itemRepository).findById(itemId);
         Mockito.verify(itemRepository).save(updatedItem);
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(ItemSavedEvent.class));
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(ItemChangedEvent.class));
     }
 
     @Test
@@ -335,6 +390,7 @@ class ItemServiceImplTest {
 
         Assertions.assertEquals(comment, createdComment);
         Mockito.verify(commentRepository).save(Mockito.eq(comment));
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(ItemChangedEvent.class));
     }
 
     @Test
@@ -364,4 +420,63 @@ class ItemServiceImplTest {
                         "или срок аренды еще не завершен.",
                 exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Возвращать свободные окна вещи, загружая бронирования один раз")
+    public void shouldReturnItemAvailabilityFromCachedCalendar() {
+        Long itemId = 1L;
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(1);
+
+        Mockito.when(itemRepository.existsById(itemId)).thenReturn(true);
+        Mockito.when(bookingRepository.findIntervalsByItemId(Mockito.eq(itemId), Mockito.any(LocalDateTime.class),
+                Mockito.eq(BookingStatus.RESERVING))).thenReturn(List.of(
+                bookingIntervalView(from.plusHours(2), from.plusHours(4)),
+                bookingIntervalView(from.plusHours(3), from.plusHours(6))
+        ));
+
+        itemService.getItemAvailability(itemId, from, to);
+        List<TimeSlotDto> freeSlots = itemService.getItemAvailability(itemId, from, to);
+
+        Assertions.assertEquals(List.of(
+                new TimeSlotDto(from, from.plusHours(2)),
+                new TimeSlotDto(from.plusHours(6), to)
+        ), freeSlots);
+        Mockito.verify(bookingRepository, Mockito.times(1)).findIntervalsByItemId(Mockito.eq(itemId),
+                Mockito.any(LocalDateTime.class), Mockito.eq(BookingStatus.RESERVING));
+    }
+
+    @Test
+    @DisplayName("Бросить исключение при запросе свободных окон несуществующей вещи")
+    public void shouldThrowExceptionWhenGettingAvailabilityOfNonExistentItem() {
+        Long itemId = 1L;
+
+        Mockito.when(itemRepository.existsById(itemId)).thenReturn(false);
+
+        final NotFoundException exception = Assertions.assertThrows(NotFoundException.class,
+                () -> itemService.getItemAvailability(itemId, null, null)
+        );
+
+        Assertions.assertEquals("Вещь #" + itemId + " не найдена.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Бросить исключение, если конец периода не позже его начала")
+    public void shouldThrowExceptionWhenAvailabilityPeriodIsEmpty() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+
+        Assertions.assertThrows(ValidationException.class,
+                () -> itemService.getItemAvailability(1L, from, from.minusHours(1))
+        );
+        Mockito.verifyNoInteractions(itemRepository, bookingRepository);
+    }
+
+    private ItemDetailsView itemDetailsView(Map<String, Object> values) {
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemDetailsView.class, values);
+    }
+
+    private BookingIntervalView bookingIntervalView(LocalDateTime start, LocalDateTime end) {
+        return new SpelAwareProxyProjectionFactory().createProjection(BookingIntervalView.class,
+                Map.of("start", start, "end", end));
+    }
+}
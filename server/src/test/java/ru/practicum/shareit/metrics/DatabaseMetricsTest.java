@@ -0,0 +1,45 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+@SpringBootTest
+@DisplayName("Метрики SQL-запросов по методам репозиториев")
+class DatabaseMetricsTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Учитывать SQL-запросы с тегами репозитория и метода")
+    public void shouldTimeStatementsByRepositoryMethod() {
+        long findByIdCount = statementCount("UserRepository", "findById");
+
+        User user = userService.createUser(User.builder().name("Метрики").email("metrics@mail.ru").build());
+        userService.getUserById(user.getId());
+
+        Assertions.assertTrue(statementCount("UserRepository", "save") > 0);
+        Assertions.assertEquals(findByIdCount + 1, statementCount("UserRepository", "findById"));
+
+        userService.deleteUser(user.getId());
+    }
+
+    private long statementCount(String repository, String method) {
+        Timer timer = meterRegistry.find(StatementTimingDataSource.TIMER_NAME)
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", "success")
+                .timer();
+
+        return (timer != null) ? timer.count() : 0;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.threads;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тесты для ConnectionLimitingDataSource")
+class ConnectionLimitingDataSourceTest {
+    private ConnectionLimitingDataSource dataSource;
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new ConnectionLimitingDataSource(targetDataSource, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Возвращать разрешение при закрытии соединения")
+    public void shouldReleasePermitOnClose() throws SQLException {
+        Mockito.when(targetDataSource.getConnection()).thenReturn(connection);
+
+        Connection limitedConnection = dataSource.getConnection();
+        Assertions.assertEquals(1, dataSource.getAvailablePermits());
+
+        limitedConnection.close();
+        limitedConnection.close();
+
+        Assertions.assertEquals(2, dataSource.getAvailablePermits());
+        Mockito.verify(connection, Mockito.times(1)).close();
+    }
+
+    @Test
+    @DisplayName("Отказывать в соединении по истечении времени ожидания")
+    public void shouldFailWhenLimitExceeded() throws SQLException {
+        Mockito.when(targetDataSource.getConnection()).thenReturn(connection);
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        Assertions.assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        Mockito.verify(targetDataSource, Mockito.times(2)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Возвращать разрешение при ошибке получения соединения")
+    public void shouldReleasePermitOnFailure() throws SQLException {
+        Mockito.when(targetDataSource.getConnection()).thenThrow(new SQLException("Нет соединения"));
+
+        Assertions.assertThrows(SQLException.class, () -> dataSource.getConnection());
+        Assertions.assertEquals(2, dataSource.getAvailablePermits());
+    }
+}
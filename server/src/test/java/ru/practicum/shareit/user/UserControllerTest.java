@@ -2,28 +2,42 @@ package ru.practicum.shareit.user;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.handlers.HeaderConstants;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static org.mockito.Mockito.doNothing;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
@@ -44,10 +58,11 @@ public class UserControllerTest {
     public void shouldReturnUsers() throws Exception {
         List<User> users = generator.objects(User.class, 2).collect(Collectors.toList());
 
-        Mockito.when(userService.getUsers()).thenReturn(users);
+        Mockito.when(userService.getUsers(PageRequest.of(0, 20))).thenReturn(users);
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HeaderConstants.X_NEXT_CURSOR))
                 .andExpect(jsonPath("$[0].id").value(users.get(0).getId()))
                 .andExpect(jsonPath("$[0].name").value(users.get(0).getName()))
                 .andExpect(jsonPath("$[0].email").value(users.get(0).getEmail()))
@@ -55,7 +70,50 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[1].name").value(users.get(1).getName()))
                 .andExpect(jsonPath("$[1].email").value(users.get(1).getEmail()));
 
-        Mockito.verify(userService).getUsers();
+        Mockito.verify(userService).getUsers(PageRequest.of(0, 20));
+    }
+
+    @Test
+    @DisplayName("Возвращать страницу пользователей после курсора с курсором следующей страницы")
+    public void shouldReturnUsersAfterCursorWithNextCursor() throws Exception {
+        List<User> users = List.of(new User(11L, "Иван", "ivan@mail.ru", null),
+                new User(12L, "Петр", "petr@mail.ru", null));
+
+        Mockito.when(userService.getUsers(10L, 2)).thenReturn(users);
+
+        mockMvc.perform(get("/users")
+                        .param("size", "2")
+                        .param("after", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HeaderConstants.X_NEXT_CURSOR, "12"))
+                .andExpect(jsonPath("$[0].id").value(11))
+                .andExpect(jsonPath("$[1].id").value(12));
+    }
+
+    @Test
+    @DisplayName("Отдавать всех пользователей потоком, запрашивая страницы по курсору")
+    public void shouldStreamUsersPageByPage() throws Exception {
+        User first = new User(1L, "Иван", "ivan@mail.ru", null);
+        User second = new User(2L, "Петр", "petr@mail.ru", null);
+        User third = new User(3L, "Анна", "anna@mail.ru", null);
+
+        Mockito.when(userService.getUsers(PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+        Mockito.when(userService.getUsers(2L, 2)).thenReturn(List.of(third));
+
+        MvcResult result = mockMvc.perform(get("/users")
+                        .param("size", "2")
+                        .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[2].id").value(3));
+
+        Mockito.verify(userService, Mockito.never()).getUsers(3L, 2);
     }
 
     @Test
@@ -68,6 +126,7 @@ public class UserControllerTest {
 
         mockMvc.perform(get("/users/{userId}", userId))
                 .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
                 .andExpect(jsonPath("$.id").value(user.getId()))
                 .andExpect(jsonPath("$.name").value(user.getName()))
                 .andExpect(jsonPath("$.email").value(user.getEmail()));
@@ -130,4 +189,74 @@ public class UserControllerTest {
 
         Mockito.verify(userService).deleteUser(userId);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Выгрузить пользователей в формате NDJSON")
+    public void shouldExportUsersAsNdjson() throws Exception {
+        List<User> users = generator.objects(User.class, 2).collect(Collectors.toList());
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(0);
+            users.forEach(consumer);
+            return null;
+        }).when(userService).exportUsers(Mockito.any());
+
+        MvcResult result = mockMvc.perform(get("/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String expected = objectMapper.writeValueAsString(UserMapper.toUserDto(users.get(0))) + "\n" +
+                objectMapper.writeValueAsString(UserMapper.toUserDto(users.get(1))) + "\n";
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(expected));
+    }
+
+    @Test
+    @DisplayName("Импортировать пользователей из NDJSON")
+    public void shouldImportUsersFromNdjson() throws Exception {
+        String body = "{\"name\": \"Иван\", \"email\": \"ivan@mail.ru\"}\n\n" +
+                "{\"id\": 5, \"name\": \"Петр\", \"email\": \"petr@mail.ru\"}\n";
+
+        Mockito.when(userService.importUsers(Mockito.any())).thenAnswer(invocation -> {
+            Iterator<User> users = invocation.getArgument(0);
+            List<User> imported = new ArrayList<>();
+            users.forEachRemaining(imported::add);
+
+            Assertions.assertEquals(List.of("ivan@mail.ru", "petr@mail.ru"), imported.stream()
+                    .map(User::getEmail)
+                    .collect(Collectors.toList()));
+            Assertions.assertNull(imported.get(1).getId());
+
+            return UserImportResultDto.builder()
+                    .imported(imported.size())
+                    .rejectedUsers(List.of())
+                    .build();
+        });
+
+        mockMvc.perform(post("/users/import")
+                        .content(body.getBytes(StandardCharsets.UTF_8))
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(0));
+    }
+
+    @Test
+    @DisplayName("Вернуть 400 при импорте некорректного NDJSON")
+    public void shouldReturnBadRequestWhenImportingMalformedNdjson() throws Exception {
+        Mockito.when(userService.importUsers(Mockito.any())).thenAnswer(invocation -> {
+            Iterator<User> users = invocation.getArgument(0);
+            users.forEachRemaining(user -> { });
+            return null;
+        });
+
+        mockMvc.perform(post("/users/import")
+                        .content("{\"name\": \"Иван\", \"email\": \"ivan@mail.ru\"}\n{не json}\n"
+                                .getBytes(StandardCharsets.UTF_8))
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -6,18 +6,30 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.cache.UserChangedEvent;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.service.impl.UserServiceImpl;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Тесты для UserServiceImpl")
@@ -27,11 +39,20 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<List<User>> inserted;
+
     private final EasyRandom generator = new EasyRandom();
 
     @BeforeEach
     public void setUp() {
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, transactionManager, eventPublisher);
     }
 
     @Test
@@ -65,9 +86,22 @@ class UserServiceImplTest {
     public void shouldReturnUsers() {
         List<User> users = generator.objects(User.class, 3).collect(Collectors.toList());
 
-        Mockito.when(userRepository.findAll()).thenReturn(users);
+        Mockito.when(userRepository.findAllBy(PageRequest.of(1, 3, Sort.by("id")))).thenReturn(users);
+
+        List<User> resultUsers = userService.getUsers(PageRequest.of(1, 3));
+
+        Assertions.assertEquals(users, resultUsers);
+    }
+
+    @Test
+    @DisplayName("Возвращать страницу пользователей после курсора")
+    public void shouldReturnUsersAfterCursor() {
+        List<User> users = generator.objects(User.class, 3).collect(Collectors.toList());
+
+        Mockito.when(userRepository.findAllByIdGreaterThan(10L, PageRequest.of(0, 3, Sort.by("id"))))
+                .thenReturn(users);
 
-        List<User> resultUsers = userService.getUsers();
+        List<User> resultUsers = userService.getUsers(10L, 3);
 
         Assertions.assertEquals(users, resultUsers);
     }
@@ -94,6 +128,8 @@ class UserServiceImplTest {
 
         User updatedUser = userService.updateUser(user);
         Assertions.assertEquals(user, updatedUser);
+
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(UserChangedEvent.class));
     }
 
     @Test
@@ -145,4 +181,86 @@ class UserServiceImplTest {
 
         Mockito.verify(userRepository, Mockito.times(1)).deleteById(Mockito.eq(userId));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Импортировать пользователей и отклонить повторяющиеся и некорректные записи")
+    public void shouldImportUsersAndRejectDuplicatesAndInvalidRecords() {
+        List<User> users = List.of(
+                new User(null, "Иван", "ivan@mail.ru", null),
+                new User(null, "Иван 2", "ivan@mail.ru", null),
+                new User(null, "Петр", "petr@mail.ru", null),
+                new User(null, "", "empty@mail.ru", null),
+                new User(null, "Анна", "anna.mail.ru", null),
+                new User(null, "Мария", "maria@mail.ru", null));
+
+        Mockito.when(userRepository.findExistingEmails(Mockito.anyCollection())).thenReturn(Set.of("petr@mail.ru"));
+
+        UserImportResultDto result = userService.importUsers(users.iterator());
+
+        Assertions.assertEquals(2, result.getImported());
+        Assertions.assertEquals(4, result.getRejected());
+        Assertions.assertEquals(List.of(2L, 4L, 5L, 3L), result.getRejectedUsers().stream()
+                .map(UserImportResultDto.RejectedUserDto::getRecord)
+                .collect(Collectors.toList()));
+
+        Mockito.verify(userRepository).insertAll(inserted.capture());
+        Assertions.assertEquals(List.of("ivan@mail.ru", "maria@mail.ru"), inserted.getValue().stream()
+                .map(User::getEmail)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Импортировать пользователей порциями")
+    public void shouldImportUsersInChunks() {
+        Iterator<User> users = IntStream.range(0, 1200)
+                .mapToObj(i -> new User(null, "Пользователь " + i, "user" + i + "@mail.ru", null))
+                .iterator();
+
+        Mockito.when(userRepository.findExistingEmails(Mockito.anyCollection())).thenReturn(Set.of());
+
+        UserImportResultDto result = userService.importUsers(users);
+
+        Assertions.assertEquals(1200, result.getImported());
+        Assertions.assertEquals(0, result.getRejected());
+
+        Mockito.verify(userRepository, Mockito.times(3)).insertAll(inserted.capture());
+        Assertions.assertEquals(List.of(500, 500, 200), inserted.getAllValues().stream()
+                .map(List::size)
+                .collect(Collectors.toList()));
+        Mockito.verify(userRepository, Mockito.times(3)).findExistingEmails(Mockito.anyCollection());
+        Mockito.verify(transactionManager, Mockito.times(3)).commit(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Вставлять порцию по одной строке, если email занят параллельным запросом после проверки")
+    public void shouldInsertChunkOneByOneWhenEmailTakenConcurrently() {
+        List<User> users = List.of(
+                new User(null, "Иван", "ivan@mail.ru", null),
+                new User(null, "Петр", "petr@mail.ru", null),
+                new User(null, "Мария", "maria@mail.ru", null));
+
+        Mockito.when(userRepository.findExistingEmails(Mockito.anyCollection())).thenReturn(Set.of());
+        // Пакетная вставка и отдельная вставка Петра нарушают уникальность email
+        Mockito.doAnswer(invocation -> {
+            List<User> chunk = invocation.getArgument(0);
+
+            if (chunk.size() > 1 || chunk.contains(users.get(1))) {
+                throw new DataIntegrityViolationException("uq_email");
+            }
+
+            return null;
+        }).when(userRepository).insertAll(Mockito.anyList());
+
+        UserImportResultDto result = userService.importUsers(users.iterator());
+
+        Assertions.assertEquals(2, result.getImported());
+        Assertions.assertEquals(1, result.getRejected());
+        Assertions.assertEquals(new UserImportResultDto.RejectedUserDto(2L, "petr@mail.ru",
+                "Пользователь с таким электронным адресом уже существует."), result.getRejectedUsers().get(0));
+
+        Mockito.verify(userRepository).insertAll(List.of(users.get(0)));
+        Mockito.verify(userRepository).insertAll(List.of(users.get(2)));
+        Mockito.verify(transactionManager, Mockito.times(2)).rollback(Mockito.any());
+        Mockito.verify(transactionManager, Mockito.times(2)).commit(Mockito.any());
+    }
+}